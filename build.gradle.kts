@@ -18,6 +18,7 @@ plugins {
     `java-library`
     alias(libs.plugins.gitSemVer)
     alias(libs.plugins.java.qa)
+    alias(libs.plugins.jmh)
     alias(libs.plugins.publish.on.central)
 }
 
@@ -41,6 +42,7 @@ dependencies {
     api(libs.wldt)
     testImplementation(libs.bundles.java.testing)
     testRuntimeOnly(libs.junit.engine)
+    jmhImplementation(libs.jol.core)
 }
 
 tasks.withType<Test> {
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.integration.wldt.LampDTSemantics;
+import io.github.webbasedwodt.model.dtkg.DTKGFilter;
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import io.github.webbasedwodt.model.dtkg.DTKGSnapshot;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
+import it.wldt.exception.WldtDigitalTwinStateException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the throughput of a DTKG that is read by HTTP-like readers while the WLDT writer keeps updating it.
+ * Each group has one writer and, by default, two readers of the whole DTKG and two of a filtered part: the scaling
+ * across cores is measured by changing the readers of the group, e.g., with {@code -tg 1,4,4}.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DTKGConcurrentAccessBenchmark {
+    private static final String ROOM_BASE_URI = "http://example.com/room/";
+    private static final DTKGFilter LUMINOSITY_FILTER = new DTKGFilter(Set.of("luminosity"), Set.of());
+
+    @Param({"1", "1000"})
+    private int relationships;
+
+    private JenaDTKGEngine engine;
+    private int luminosity;
+
+    /**
+     * Create the DTKG of a lamp located in the configured number of rooms.
+     * @throws WldtDigitalTwinStateException if a state resource of the lamp cannot be created
+     */
+    @Setup
+    public void setUp() throws WldtDigitalTwinStateException {
+        this.engine = new JenaDTKGEngine(URI.create("http://example.com/dt"), new LampDTSemantics());
+        this.engine.addDigitalTwinProperty(new DigitalTwinStateProperty<>("luminosity", 0));
+        this.engine.addDigitalTwinProperty(new DigitalTwinStateProperty<>("illuminance", 0));
+        for (int i = 0; i < this.relationships; i++) {
+            this.engine.addRelationship(
+                new DigitalTwinStateRelationshipInstance<>("isInRoom", ROOM_BASE_URI + i, "isInRoom-" + i)
+            );
+        }
+    }
+
+    /**
+     * Update the luminosity of the lamp and commit the change.
+     * @throws WldtDigitalTwinStateException if the property cannot be created
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void write() throws WldtDigitalTwinStateException {
+        this.luminosity++;
+        this.engine.updateDigitalTwinProperty(
+            new DigitalTwinStateProperty<>("luminosity", this.luminosity),
+            new DigitalTwinStateProperty<>("luminosity", this.luminosity - 1)
+        );
+        this.engine.commitUpdateTransaction();
+    }
+
+    /**
+     * Read the whole DTKG, serialized at most once per version.
+     * @return the snapshot of the DTKG
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(2)
+    public DTKGSnapshot readDTKG() {
+        return this.engine.getCurrentSnapshot(DTKGFormat.N_TRIPLES);
+    }
+
+    /**
+     * Read the part of the DTKG that belongs to the luminosity, serialized on every read.
+     * @return the snapshot of the selected part of the DTKG
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(2)
+    public DTKGSnapshot readFilteredDTKG() {
+        return this.engine.getCurrentSnapshot(LUMINOSITY_FILTER, DTKGFormat.N_TRIPLES);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.integration.wldt.LampDTSemantics;
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import it.wldt.core.state.DigitalTwinStateAction;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
+import it.wldt.exception.WldtDigitalTwinStateException;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the memory footprint of the DTKGs of many Digital Twins, for each {@link DTKGStorage}.
+ * The footprint is reported by the {@code bytesPerDigitalTwin} counter, it is the retained size of the engines,
+ * versions, indexes and term dictionary included, divided by the number of Digital Twins.
+ * The {@code GRAPH_MEM} baseline is the storage of the engine before the persistent versions: the same DTKGs in a
+ * default Jena model each, i.e., a GraphMem. Only the models are measured, so the baseline is a lower bound that
+ * excludes the state of the engine, e.g., its indexes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class DTKGStorageBenchmark {
+    private static final String DIGITAL_TWIN_BASE_URI = "http://example.com/dt/";
+    private static final String ROOM_BASE_URI = "http://example.com/room/";
+    private static final String GRAPH_MEM = "GRAPH_MEM";
+
+    @Param({GRAPH_MEM, "JENA", "DICTIONARY_ENCODED"})
+    private String storage;
+
+    @Param("1000")
+    private int digitalTwins;
+
+    /**
+     * Counters of the memory footprint.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        private long bytesPerDigitalTwin;
+
+        /**
+         * Get the retained size of the DTKG of a Digital Twin.
+         * @return the size in bytes
+         */
+        public long bytesPerDigitalTwin() {
+            return this.bytesPerDigitalTwin;
+        }
+    }
+
+    /**
+     * Create the DTKGs of the Digital Twins and measure their footprint.
+     * @param footprint the counters of the footprint
+     * @return the DTKG engines, or the models of the baseline
+     * @throws WldtDigitalTwinStateException if a state resource of a Digital Twin cannot be created
+     */
+    @Benchmark
+    public List<Object> createDigitalTwins(final Footprint footprint) throws WldtDigitalTwinStateException {
+        final TermDictionary dictionary = new TermDictionary();
+        final LampDTSemantics semantics = new LampDTSemantics();
+        final List<Object> dtkgs = new ArrayList<>(this.digitalTwins);
+        for (int i = 0; i < this.digitalTwins; i++) {
+            final JenaDTKGEngine.Builder builder = JenaDTKGEngine
+                .builder(URI.create(DIGITAL_TWIN_BASE_URI + i), semantics)
+                .withDeltaLog(0);
+            if (DTKGStorage.DICTIONARY_ENCODED.name().equals(this.storage)) {
+                builder.withTermDictionary(dictionary);
+            }
+            final JenaDTKGEngine engine = builder.build();
+            engine.beginUpdateBatch()
+                .addDigitalTwinProperty(new DigitalTwinStateProperty<>("luminosity", i))
+                .addDigitalTwinProperty(new DigitalTwinStateProperty<>("illuminance", i % 2))
+                .addRelationship(
+                    new DigitalTwinStateRelationshipInstance<>("isInRoom", ROOM_BASE_URI + i, "isInRoom-" + i)
+                )
+                .addAction(new DigitalTwinStateAction("switch", "status.switch", ""))
+                .apply();
+            dtkgs.add(GRAPH_MEM.equals(this.storage) ? toGraphMem(engine) : engine);
+        }
+        footprint.bytesPerDigitalTwin = GraphLayout.parseInstance(dtkgs.toArray()).totalSize() / this.digitalTwins;
+        return dtkgs;
+    }
+
+    private static Model toGraphMem(final JenaDTKGEngine engine) {
+        final Model model = ModelFactory.createDefaultModel();
+        RDFParser.fromString(engine.getCurrentSnapshot(DTKGFormat.N_TRIPLES).getDigitalTwinKnowledgeGraph())
+            .lang(Lang.NTRIPLES)
+            .parse(model);
+        return model;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.integration.wldt.LampDTSemantics;
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import io.github.webbasedwodt.model.ontology.WoDTVocabulary;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
+import it.wldt.exception.WldtDigitalTwinStateException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RDFWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the Turtle serialization of a lamp DTKG, with the pretty and the blocks writers, with and without
+ * prefixes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DTKGTurtleSerializationBenchmark {
+    private static final String ROOM_BASE_URI = "http://example.com/room/";
+
+    @Param({"TURTLE_PRETTY", "TURTLE_BLOCKS"})
+    private String writer;
+
+    @Param({"false", "true"})
+    private boolean prefixes;
+
+    @Param({"1", "1000"})
+    private int relationships;
+
+    private RDFFormat format;
+    private Graph dtkg;
+
+    /**
+     * Create the DTKG of a lamp located in the configured number of rooms.
+     * @throws WldtDigitalTwinStateException if a state resource of the lamp cannot be created
+     */
+    @Setup
+    public void setUp() throws WldtDigitalTwinStateException {
+        final LampDTSemantics semantics = new LampDTSemantics();
+        final JenaDTKGEngine engine = new JenaDTKGEngine(URI.create("http://example.com/dt"), semantics);
+        engine.addDigitalTwinProperty(new DigitalTwinStateProperty<>("luminosity", 100));
+        engine.addDigitalTwinProperty(new DigitalTwinStateProperty<>("illuminance", 50));
+        for (int i = 0; i < this.relationships; i++) {
+            engine.addRelationship(
+                new DigitalTwinStateRelationshipInstance<>("isInRoom", ROOM_BASE_URI + i, "isInRoom-" + i)
+            );
+        }
+        this.dtkg = RDFParser.fromString(engine.getCurrentSnapshot(DTKGFormat.N_TRIPLES).getDigitalTwinKnowledgeGraph())
+            .lang(Lang.NTRIPLES)
+            .toGraph();
+        if (this.prefixes) {
+            this.dtkg.getPrefixMapping().setNsPrefix("wodt", WoDTVocabulary.BASE_URI.getUri());
+            this.dtkg.getPrefixMapping().setNsPrefixes(semantics.getPrefixes());
+        }
+        this.format = "TURTLE_BLOCKS".equals(this.writer) ? RDFFormat.TURTLE_BLOCKS : RDFFormat.TURTLE_PRETTY;
+    }
+
+    /**
+     * Serialize the DTKG.
+     * @return the serialized DTKG
+     */
+    @Benchmark
+    public String serialize() {
+        return RDFWriter.create().format(this.format).source(this.dtkg).asString();
+    }
+}
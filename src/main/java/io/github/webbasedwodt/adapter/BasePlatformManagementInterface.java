@@ -26,6 +26,7 @@ import java.net.http.HttpResponse;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Base implementation of the {@link PlatformManagementInterface}.
@@ -35,6 +36,7 @@ final class BasePlatformManagementInterface implements PlatformManagementInterfa
     private static final int ACCEPTED_REQUEST_STATUS_CODE = 202;
     private final URI digitalTwinUri;
     private final Set<URI> platforms;
+    private final AtomicLong registrationsVersion;
 
     /**
      * Default constructor.
@@ -43,6 +45,7 @@ final class BasePlatformManagementInterface implements PlatformManagementInterfa
     BasePlatformManagementInterface(final URI digitalTwinUri) {
         this.digitalTwinUri = digitalTwinUri;
         this.platforms = Collections.synchronizedSet(new HashSet<>());
+        this.registrationsVersion = new AtomicLong();
     }
 
     @Override
@@ -77,6 +80,7 @@ final class BasePlatformManagementInterface implements PlatformManagementInterfa
             httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString());
         });
         this.platforms.clear();
+        this.registrationsVersion.incrementAndGet();
     }
 
     private URI getPlatformWoDT(final URI platformUrl) {
@@ -92,8 +96,17 @@ final class BasePlatformManagementInterface implements PlatformManagementInterfa
         return new HashSet<>(this.platforms);
     }
 
+    @Override
+    public long getRegistrationsVersion() {
+        return this.registrationsVersion.get();
+    }
+
     @Override
     public boolean notifyNewRegistration(final URI platformUrl) {
-        return this.platforms.add(platformUrl);
+        if (this.platforms.add(platformUrl)) {
+            this.registrationsVersion.incrementAndGet();
+            return true;
+        }
+        return false;
     }
 }
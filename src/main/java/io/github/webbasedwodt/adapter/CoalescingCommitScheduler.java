@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * This class limits the rate at which DTKG transactions are committed, and so notified.
+ * A commit requested less than the minimum interval after the previous one is postponed, and all the commits
+ * requested in the meantime are coalesced into it.
+ * Changes are still applied to the DTKG as soon as they happen, so readers always see the current graph.
+ * A single lock guards both the scheduling state and the commit, so commits are performed, and observers are
+ * notified, in the same order the transactions are closed.
+ */
+final class CoalescingCommitScheduler {
+    private final Runnable commit;
+    private final long minIntervalNanos;
+    private final BiConsumer<Runnable, Long> delayedExecutor;
+    private final LongSupplier nanoClock;
+    private boolean committed;
+    private long lastCommitTime;
+    private boolean commitScheduled;
+
+    /**
+     * Default constructor.
+     * @param commit the commit to perform
+     * @param minInterval the minimum interval between two commits, zero to commit on every request
+     * @param delayedExecutor the executor that runs a task after a delay, in nanoseconds
+     * @param nanoClock the source of the current time, in nanoseconds
+     */
+    CoalescingCommitScheduler(
+            final Runnable commit,
+            final Duration minInterval,
+            final BiConsumer<Runnable, Long> delayedExecutor,
+            final LongSupplier nanoClock
+    ) {
+        this.commit = commit;
+        this.minIntervalNanos = minInterval.toNanos();
+        this.delayedExecutor = delayedExecutor;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Request a commit. It is performed immediately if the minimum interval since the previous one has elapsed,
+     * otherwise it is scheduled at the end of the interval, unless a commit is already scheduled.
+     */
+    synchronized void requestCommit() {
+        if (this.commitScheduled) {
+            return;
+        }
+        final long now = this.nanoClock.getAsLong();
+        final long delay = this.committed ? this.lastCommitTime + this.minIntervalNanos - now : 0;
+        if (delay > 0) {
+            this.commitScheduled = true;
+            this.delayedExecutor.accept(this::scheduledCommit, delay);
+            return;
+        }
+        this.runCommit(now);
+    }
+
+    /**
+     * Commit immediately, regardless of the minimum interval.
+     * A scheduled commit is no longer needed, so the next requests are handled as if it had been performed, even
+     * if its executor is shut down before running it.
+     */
+    synchronized void flush() {
+        this.runCommit(this.nanoClock.getAsLong());
+    }
+
+    private synchronized void scheduledCommit() {
+        this.runCommit(this.nanoClock.getAsLong());
+    }
+
+    private void runCommit(final long now) {
+        this.commitScheduled = false;
+        this.committed = true;
+        this.lastCommitTime = now;
+        this.commit.run();
+    }
+}
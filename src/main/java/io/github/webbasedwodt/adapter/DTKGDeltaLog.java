@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ring buffer that retains the most recent committed {@link DTKGDelta}s, so that the changes after a given version
+ * can be replayed without serializing the whole DTKG.
+ */
+final class DTKGDeltaLog {
+    private final DTKGDelta[] deltas;
+    private int oldestIndex;
+    private int size;
+    private long lastVersion;
+
+    /**
+     * Default constructor.
+     * @param capacity the maximum number of retained deltas
+     */
+    DTKGDeltaLog(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity of the log cannot be negative.");
+        }
+        this.deltas = new DTKGDelta[capacity];
+    }
+
+    /**
+     * Append a committed delta, overwriting the oldest one if the log is full.
+     * @param delta the delta
+     */
+    synchronized void append(final DTKGDelta delta) {
+        this.lastVersion = delta.getVersion();
+        if (this.deltas.length == 0) {
+            return;
+        }
+        if (this.size < this.deltas.length) {
+            this.deltas[(this.oldestIndex + this.size) % this.deltas.length] = delta;
+            this.size++;
+        } else {
+            this.deltas[this.oldestIndex] = delta;
+            this.oldestIndex = (this.oldestIndex + 1) % this.deltas.length;
+        }
+    }
+
+    /**
+     * Get the deltas committed after the given version, in commit order.
+     * @param version the version
+     * @return the deltas, or an empty optional if some of them are no longer retained
+     */
+    synchronized Optional<List<DTKGDelta>> getDeltasSince(final long version) {
+        if (version >= this.lastVersion) {
+            return Optional.of(List.of());
+        }
+        if (this.size == 0 || this.deltas[this.oldestIndex].getPreviousVersion() > version) {
+            return Optional.empty();
+        }
+        final List<DTKGDelta> missingDeltas = new ArrayList<>();
+        for (int offset = 0; offset < this.size; offset++) {
+            final DTKGDelta delta = this.deltas[(this.oldestIndex + offset) % this.deltas.length];
+            if (delta.getVersion() > version) {
+                missingDeltas.add(delta);
+            }
+        }
+        return Optional.of(missingDeltas);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.dtkg.DTKGFilter;
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.impl.GraphBase;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.WrappedIterator;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable version of the DTKG, published to the readers after each write.
+ * Its triples, in a {@link TripleSet}, and the ones of each property are kept in persistent structures, so
+ * consecutive versions share everything but the changed paths, and readers can access a version from any thread,
+ * without locks, while the next one is being written.
+ * When the triples are encoded in a {@link TermDictionary}, the version is the owner of the identifiers of its terms:
+ * its graph and their iterators keep it reachable, so the identifiers are not reused while they are read.
+ */
+final class DTKGGraphVersion {
+    private final long version;
+    private final TripleSet triples;
+    private final PersistentHashMap<String, List<Triple>> propertyTriples;
+    private final PersistentHashMap<String, String> propertyDomainTags;
+    private final PrefixMapping prefixes;
+
+    /**
+     * Default constructor.
+     * @param version the version of the DTKG
+     * @param triples the triples of the DTKG
+     * @param propertyTriples the triples of each property
+     * @param propertyDomainTags the domain tag of each property that has one
+     * @param prefixes the prefixes of the DTKG, that must not be modified afterwards
+     */
+    DTKGGraphVersion(
+            final long version,
+            final TripleSet triples,
+            final PersistentHashMap<String, List<Triple>> propertyTriples,
+            final PersistentHashMap<String, String> propertyDomainTags,
+            final PrefixMapping prefixes
+    ) {
+        this.version = version;
+        this.triples = triples;
+        this.propertyTriples = propertyTriples;
+        this.propertyDomainTags = propertyDomainTags;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * Get the version of the DTKG.
+     * @return the version
+     */
+    long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Get the number of triples of the DTKG.
+     * @return the number of triples
+     */
+    int size() {
+        return this.triples.size();
+    }
+
+    /**
+     * Check if the DTKG contains a triple.
+     * @param triple the triple
+     * @return true if the triple is present, false otherwise
+     */
+    boolean contains(final Triple triple) {
+        return this.triples.contains(triple);
+    }
+
+    /**
+     * Obtain a read-only Jena graph of the DTKG, with its prefixes.
+     * @return the graph
+     */
+    Graph asGraph() {
+        return new VersionGraph();
+    }
+
+    /**
+     * Obtain a Jena graph of the triples of the properties that match a filter, with the prefixes of the DTKG.
+     * @param filter the filter on the properties
+     * @return the graph
+     */
+    Graph filter(final DTKGFilter filter) {
+        final Graph filteredGraph = GraphFactory.createDefaultGraph();
+        filteredGraph.getPrefixMapping().setNsPrefixes(this.prefixes);
+        this.propertyTriples.forEach((propertyKey, triples) -> {
+            if (filter.matches(propertyKey, Optional.ofNullable(this.propertyDomainTags.get(propertyKey)))) {
+                triples.forEach(filteredGraph::add);
+            }
+        });
+        Reference.reachabilityFence(this);
+        return filteredGraph;
+    }
+
+    /**
+     * Write the DTKG straight from its triples, without a Jena writer, if they support the format.
+     * @param format the format
+     * @param output the output
+     * @return true if the DTKG has been written, false if the format must be written by a Jena writer
+     * @throws IOException if the output cannot be written
+     */
+    boolean write(final DTKGFormat format, final Appendable output) throws IOException {
+        try {
+            return this.triples.write(format, this.prefixes, output);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Perform an action for the identifier of each term of the DTKG, if its triples are encoded in a dictionary.
+     * @param action the action
+     */
+    void forEachTermIdentifier(final IntConsumer action) {
+        this.triples.forEachTermIdentifier(action);
+        this.propertyTriples.forEach((propertyKey, indexedTriples) -> {
+            this.triples.forEachTermIdentifier(indexedTriples, action);
+        });
+    }
+
+    /**
+     * Read-only view of the triples of a version, that finds them through the indexes of its set.
+     */
+    private final class VersionGraph extends GraphBase {
+        VersionGraph() {
+            super();
+            this.getPrefixMapping().setNsPrefixes(DTKGGraphVersion.this.prefixes);
+        }
+
+        @Override
+        protected ExtendedIterator<Triple> graphBaseFind(final Triple triplePattern) {
+            return WrappedIterator.create(new VersionIterator(DTKGGraphVersion.this.triples.find(triplePattern)));
+        }
+
+        @Override
+        protected boolean graphBaseContains(final Triple triple) {
+            return triple.isConcrete()
+                ? DTKGGraphVersion.this.triples.contains(triple)
+                : super.graphBaseContains(triple);
+        }
+
+        @Override
+        protected int graphBaseSize() {
+            return DTKGGraphVersion.this.triples.size();
+        }
+    }
+
+    /**
+     * Iterator of the triples of a version, that keeps the version reachable until each triple has been read.
+     */
+    private final class VersionIterator implements Iterator<Triple> {
+        private final Iterator<Triple> versionTriples;
+
+        VersionIterator(final Iterator<Triple> versionTriples) {
+            this.versionTriples = versionTriples;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.versionTriples.hasNext();
+        }
+
+        @Override
+        public Triple next() {
+            try {
+                return this.versionTriples.next();
+            } finally {
+                Reference.reachabilityFence(DTKGGraphVersion.this);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+/**
+ * In-memory storage of the DTKG of a Digital Twin.
+ */
+public enum DTKGStorage {
+    /**
+     * Jena triples, made of the terms created by the mapping of each change, in persistent structures indexed by
+     * subject, predicate and object.
+     */
+    JENA,
+
+    /**
+     * Triples of the int identifiers of their terms, encoded in a dictionary shared by all the Digital Twins of the
+     * JVM, so that equal terms are stored once and each triple takes three ints in persistent sorted tables.
+     * Snapshots in N-Triples and Turtle are written straight from the identifiers.
+     * It reduces the memory footprint of hosting many Digital Twins, especially when they share their semantics.
+     */
+    DICTIONARY_ENCODED
+}
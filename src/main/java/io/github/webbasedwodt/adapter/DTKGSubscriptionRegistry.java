@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+import io.github.webbasedwodt.model.dtkg.DTKGFilter;
+import io.github.webbasedwodt.model.dtkg.DTKGSubscriptionStatistics;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Lock-free registry of the {@link DTKGWebSocketSubscriber}s that publishes each delta to the interested ones.
+ * Subscribers with a {@link DTKGFilter} are indexed by the property keys and the domain tags they select, so a
+ * delta reaches only the subscribers of the properties it changes, restricted to their properties: the others
+ * cost nothing.
+ * @param <K> the type of the key that identifies a subscription
+ */
+final class DTKGSubscriptionRegistry<K> {
+    private final Map<K, DTKGWebSocketSubscriber> subscribers;
+    private final Set<K> unfilteredSubscriptions;
+    private final Map<K, DTKGFilter> filters;
+    private final Map<String, Set<K>> subscriptionsByPropertyKey;
+    private final Map<String, Set<K>> subscriptionsByDomainTag;
+    private final AtomicLong evictedSubscribers;
+
+    /**
+     * Default constructor.
+     */
+    DTKGSubscriptionRegistry() {
+        this.subscribers = new ConcurrentHashMap<>();
+        this.unfilteredSubscriptions = ConcurrentHashMap.newKeySet();
+        this.filters = new ConcurrentHashMap<>();
+        this.subscriptionsByPropertyKey = new ConcurrentHashMap<>();
+        this.subscriptionsByDomainTag = new ConcurrentHashMap<>();
+        this.evictedSubscribers = new AtomicLong();
+    }
+
+    /**
+     * Register a subscriber.
+     * @param key the key of the subscription
+     * @param subscriber the subscriber
+     * @param filter the filter on the properties of interest, if any
+     */
+    void register(final K key, final DTKGWebSocketSubscriber subscriber, final Optional<DTKGFilter> filter) {
+        this.subscribers.put(key, subscriber);
+        if (filter.isPresent()) {
+            this.filters.put(key, filter.get());
+            filter.get().getPropertyKeys().forEach(propertyKey ->
+                index(this.subscriptionsByPropertyKey, propertyKey, key)
+            );
+            filter.get().getDomainTags().forEach(domainTag -> index(this.subscriptionsByDomainTag, domainTag, key));
+        } else {
+            this.unfilteredSubscriptions.add(key);
+        }
+    }
+
+    /**
+     * Unregister a subscriber.
+     * @param key the key of the subscription
+     */
+    void unregister(final K key) {
+        final DTKGWebSocketSubscriber subscriber = this.subscribers.remove(key);
+        if (subscriber != null && subscriber.isEvicted()) {
+            this.evictedSubscribers.incrementAndGet();
+        }
+        this.unfilteredSubscriptions.remove(key);
+        final DTKGFilter filter = this.filters.remove(key);
+        if (filter != null) {
+            filter.getPropertyKeys().forEach(propertyKey ->
+                unindex(this.subscriptionsByPropertyKey, propertyKey, key)
+            );
+            filter.getDomainTags().forEach(domainTag -> unindex(this.subscriptionsByDomainTag, domainTag, key));
+        }
+    }
+
+    /**
+     * Publish a delta to the interested subscribers, unregistering the evicted ones.
+     * @param delta the delta
+     */
+    void publish(final DTKGDelta delta) {
+        if (!this.unfilteredSubscriptions.isEmpty()) {
+            final long rdfPatchSize = DTKGWebSocketSubscriber.encodedLength(delta.getRdfPatch());
+            this.unfilteredSubscriptions.forEach(key -> this.send(key, delta, rdfPatchSize));
+        }
+        if (this.filters.isEmpty()) {
+            return;
+        }
+        final Set<K> interestedSubscriptions = new HashSet<>();
+        delta.getChangedPropertyKeys().forEach(propertyKey -> {
+            interestedSubscriptions.addAll(this.subscriptionsByPropertyKey.getOrDefault(propertyKey, Set.of()));
+            delta.getDomainTag(propertyKey).ifPresent(domainTag ->
+                interestedSubscriptions.addAll(this.subscriptionsByDomainTag.getOrDefault(domainTag, Set.of()))
+            );
+        });
+        final Map<DTKGFilter, Optional<DTKGDelta>> filteredDeltas = new HashMap<>();
+        interestedSubscriptions.forEach(key -> {
+            final DTKGFilter filter = this.filters.get(key);
+            if (filter != null) {
+                filteredDeltas.computeIfAbsent(filter, delta::filter).ifPresent(filteredDelta ->
+                    this.send(key, filteredDelta, DTKGWebSocketSubscriber.encodedLength(filteredDelta.getRdfPatch()))
+                );
+            }
+        });
+    }
+
+    /**
+     * Perform an action for each registered subscriber.
+     * @param action the action, given the key of the subscription and the subscriber
+     */
+    void forEach(final BiConsumer<? super K, ? super DTKGWebSocketSubscriber> action) {
+        this.subscribers.forEach(action);
+    }
+
+    /**
+     * Get the statistics of the registered subscribers.
+     * @return the current statistics
+     */
+    DTKGSubscriptionStatistics getStatistics() {
+        int subscriberCount = 0;
+        int laggingSubscribers = 0;
+        long pendingFrames = 0;
+        long pendingBytes = 0;
+        for (final DTKGWebSocketSubscriber subscriber : this.subscribers.values()) {
+            subscriberCount++;
+            laggingSubscribers += subscriber.isLagging() ? 1 : 0;
+            pendingFrames += subscriber.getPendingFrames();
+            pendingBytes += subscriber.getPendingBytes();
+        }
+        return new DTKGSubscriptionStatistics(
+            subscriberCount,
+            laggingSubscribers,
+            this.evictedSubscribers.get(),
+            pendingFrames,
+            pendingBytes
+        );
+    }
+
+    private void send(final K key, final DTKGDelta delta, final long rdfPatchSize) {
+        final DTKGWebSocketSubscriber subscriber = this.subscribers.get(key);
+        if (subscriber != null && !subscriber.sendDelta(delta, rdfPatchSize)) {
+            this.unregister(key);
+        }
+    }
+
+    private static <K> void index(final Map<String, Set<K>> index, final String indexKey, final K key) {
+        index.compute(indexKey, (ignored, keys) -> {
+            final Set<K> indexedKeys = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+            indexedKeys.add(key);
+            return indexedKeys;
+        });
+    }
+
+    private static <K> void unindex(final Map<String, Set<K>> index, final String indexKey, final K key) {
+        index.computeIfPresent(indexKey, (ignored, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+}
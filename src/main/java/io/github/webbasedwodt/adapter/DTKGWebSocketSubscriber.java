@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * This class models a client subscribed to the DTKG updates through a WebSocket.
+ * It keeps track of the frames, and of their bytes, that have been written but not yet sent to the client.
+ * When they exceed the high-water marks the client is considered lagging: new deltas are not written but conflated
+ * into a single pending delta, that is written as soon as the client catches up.
+ * A client that keeps lagging for longer than the lag timeout is evicted, when the timeout expires, even if no
+ * other delta is notified in the meantime.
+ * The subscription starts either from a snapshot of the DTKG or from the deltas the client missed: deltas
+ * notified before it starts are held back, and deltas already included in what the client received are skipped.
+ */
+final class DTKGWebSocketSubscriber {
+    private static final int MAX_ONE_BYTE_CHAR = 0x7F;
+    private static final int MAX_TWO_BYTES_CHAR = 0x7FF;
+    private static final int THREE_BYTES = 3;
+    private static final int SURROGATE_PAIR_BYTES = 4;
+
+    private final MessageChannel channel;
+    private final long maxPendingBytes;
+    private final int maxPendingFrames;
+    private final long lagTimeoutNanos;
+    private final BiConsumer<Runnable, Long> delayedExecutor;
+    private final LongSupplier nanoClock;
+    private int pendingFrames;
+    private long pendingBytes;
+    private DTKGDelta conflatedDelta;
+    private long laggingSince;
+    private boolean evicted;
+    private List<DTKGDelta> deltasBeforeStart;
+    private String resyncBeforeStart;
+    private long resyncVersionBeforeStart;
+    private long lastVersion;
+
+    /**
+     * Default constructor.
+     * @param channel the channel used to send messages to the client
+     * @param maxPendingBytes the high-water mark for the bytes not yet sent
+     * @param maxPendingFrames the high-water mark for the frames not yet sent
+     * @param lagTimeout the maximum time a client can lag before being evicted
+     * @param delayedExecutor the executor that runs a task after a delay, in nanoseconds
+     * @param nanoClock the source of the current time, in nanoseconds
+     */
+    DTKGWebSocketSubscriber(
+            final MessageChannel channel,
+            final long maxPendingBytes,
+            final int maxPendingFrames,
+            final Duration lagTimeout,
+            final BiConsumer<Runnable, Long> delayedExecutor,
+            final LongSupplier nanoClock
+    ) {
+        this.channel = channel;
+        this.maxPendingBytes = maxPendingBytes;
+        this.maxPendingFrames = maxPendingFrames;
+        this.lagTimeoutNanos = lagTimeout.toNanos();
+        this.delayedExecutor = delayedExecutor;
+        this.nanoClock = nanoClock;
+        this.deltasBeforeStart = new ArrayList<>();
+    }
+
+    /**
+     * Start the subscription sending the whole DTKG to the client. The snapshot is never conflated.
+     * @param dtkg the serialized DTKG
+     * @param version the version of the DTKG
+     */
+    synchronized void startFromSnapshot(final String dtkg, final long version) {
+        if (!this.evicted) {
+            this.write(dtkg, encodedLength(dtkg));
+        }
+        this.lastVersion = version;
+        this.sendDeltasBeforeStart();
+    }
+
+    /**
+     * Start the subscription sending to the client only the deltas it missed.
+     * @param version the version of the DTKG already known by the client
+     * @param missingDeltas the deltas committed after that version
+     */
+    synchronized void startFromVersion(final long version, final List<DTKGDelta> missingDeltas) {
+        this.lastVersion = version;
+        missingDeltas.forEach(delta -> this.offer(delta, encodedLength(delta.getRdfPatch())));
+        this.sendDeltasBeforeStart();
+    }
+
+    /**
+     * Send the whole DTKG again, discarding the conflated deltas, because the client missed some deltas and cannot
+     * apply the next ones. Like the initial snapshot, it is never conflated.
+     * If the subscription has not started yet, the DTKG is held back and sent after what the subscription starts
+     * from, unless that is already up to date.
+     * @param dtkg the serialized DTKG
+     * @param version the version of the DTKG
+     */
+    synchronized void resync(final String dtkg, final long version) {
+        if (this.deltasBeforeStart != null) {
+            this.resyncBeforeStart = dtkg;
+            this.resyncVersionBeforeStart = version;
+        } else if (!this.evicted) {
+            this.writeResync(dtkg, version);
+        }
+    }
+
+    /**
+     * Send a delta to the client, or conflate it if the client is lagging.
+     * @param delta the delta to send
+     * @param deltaSize the size, in bytes, of the encoded RDF Patch of the delta
+     * @return false if the client has been evicted, true otherwise
+     */
+    synchronized boolean sendDelta(final DTKGDelta delta, final long deltaSize) {
+        if (this.deltasBeforeStart != null) {
+            this.deltasBeforeStart.add(delta);
+            return !this.evicted;
+        }
+        return this.offer(delta, deltaSize);
+    }
+
+    private void sendDeltasBeforeStart() {
+        final List<DTKGDelta> heldDeltas = this.deltasBeforeStart;
+        if (heldDeltas == null) {
+            return;
+        }
+        this.deltasBeforeStart = null;
+        if (this.resyncBeforeStart != null && this.resyncVersionBeforeStart > this.lastVersion && !this.evicted) {
+            this.writeResync(this.resyncBeforeStart, this.resyncVersionBeforeStart);
+        }
+        this.resyncBeforeStart = null;
+        heldDeltas.forEach(delta -> this.offer(delta, encodedLength(delta.getRdfPatch())));
+    }
+
+    private void writeResync(final String dtkg, final long version) {
+        this.conflatedDelta = null;
+        this.lastVersion = Math.max(this.lastVersion, version);
+        this.write(dtkg, encodedLength(dtkg));
+    }
+
+    private boolean offer(final DTKGDelta delta, final long deltaSize) {
+        if (this.evicted) {
+            return false;
+        }
+        if (delta.getVersion() <= this.lastVersion) {
+            return true;
+        }
+        this.lastVersion = delta.getVersion();
+        if (this.conflatedDelta != null) {
+            if (this.checkLagTimeout()) {
+                return false;
+            }
+            this.conflatedDelta = this.conflatedDelta.followedBy(delta);
+        } else if (this.isOverHighWaterMark(deltaSize)) {
+            this.conflatedDelta = delta;
+            this.laggingSince = this.nanoClock.getAsLong();
+            // The timeout is checked when it expires too, so a client that lags while the DTKG is idle is evicted.
+            this.delayedExecutor.accept(this::checkLagTimeout, this.lagTimeoutNanos);
+        } else {
+            this.write(delta.getRdfPatch(), deltaSize);
+        }
+        return true;
+    }
+
+    /**
+     * Check if the client has been evicted, or if its channel failed.
+     * @return true if evicted, false otherwise
+     */
+    synchronized boolean isEvicted() {
+        return this.evicted;
+    }
+
+    /**
+     * Check if the client is lagging, i.e., if some deltas are waiting to be sent.
+     * @return true if lagging, false otherwise
+     */
+    synchronized boolean isLagging() {
+        return this.conflatedDelta != null;
+    }
+
+    /**
+     * Get the number of frames not yet sent to the client.
+     * @return the number of pending frames
+     */
+    synchronized int getPendingFrames() {
+        return this.pendingFrames;
+    }
+
+    /**
+     * Get the number of bytes not yet sent to the client.
+     * @return the number of pending bytes
+     */
+    synchronized long getPendingBytes() {
+        return this.pendingBytes;
+    }
+
+    private boolean isOverHighWaterMark(final long messageSize) {
+        return this.pendingFrames >= this.maxPendingFrames
+                || (this.pendingFrames > 0 && this.pendingBytes + messageSize > this.maxPendingBytes);
+    }
+
+    private void write(final String message, final long messageSize) {
+        this.pendingFrames++;
+        this.pendingBytes += messageSize;
+        this.channel.send(message, () -> this.onWriteSuccess(messageSize), cause -> this.evict(cause.getMessage()));
+    }
+
+    private synchronized void onWriteSuccess(final long messageSize) {
+        this.pendingFrames--;
+        this.pendingBytes -= messageSize;
+        if (!this.evicted && this.conflatedDelta != null) {
+            final String rdfPatch = this.conflatedDelta.getRdfPatch();
+            final long rdfPatchSize = encodedLength(rdfPatch);
+            if (!this.isOverHighWaterMark(rdfPatchSize)) {
+                this.conflatedDelta = null;
+                this.write(rdfPatch, rdfPatchSize);
+            }
+        }
+    }
+
+    // Evict the client if it has been lagging for the whole timeout, returning whether it is evicted.
+    private synchronized boolean checkLagTimeout() {
+        if (this.conflatedDelta != null && this.nanoClock.getAsLong() - this.laggingSince >= this.lagTimeoutNanos) {
+            this.evict("Slow consumer");
+        }
+        return this.evicted;
+    }
+
+    private synchronized void evict(final String reason) {
+        if (!this.evicted) {
+            this.evicted = true;
+            this.conflatedDelta = null;
+            this.channel.close(reason);
+        }
+    }
+
+    /**
+     * Compute the length of a string encoded in UTF-8 without encoding it.
+     * @param message the string
+     * @return the number of bytes
+     */
+    static long encodedLength(final String message) {
+        long length = 0;
+        int index = 0;
+        while (index < message.length()) {
+            final char character = message.charAt(index);
+            if (character <= MAX_ONE_BYTE_CHAR) {
+                length++;
+            } else if (character <= MAX_TWO_BYTES_CHAR) {
+                length += 2;
+            } else if (Character.isHighSurrogate(character)) {
+                length += SURROGATE_PAIR_BYTES;
+                index++;
+            } else {
+                length += THREE_BYTES;
+            }
+            index++;
+        }
+        return length;
+    }
+
+    /**
+     * The channel through which messages are sent, asynchronously, to the client.
+     */
+    interface MessageChannel {
+        /**
+         * Send a message without waiting for it to be sent.
+         * @param message the message
+         * @param onSuccess called when the message has been sent
+         * @param onFailure called when the message cannot be sent
+         */
+        void send(String message, Runnable onSuccess, Consumer<Throwable> onFailure);
+
+        /**
+         * Close the channel.
+         * @param reason the reason of the closure
+         */
+        void close(String reason);
+    }
+}
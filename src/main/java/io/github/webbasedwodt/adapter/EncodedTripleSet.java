@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.shared.PrefixMapping;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable set of triples stored as the identifiers of their terms in a {@link TermDictionary}.
+ * The identifiers are kept in three {@link IntTripleTable}s, sorted by subject, by predicate and by object, so the
+ * triples that match a pattern are found with a binary search, and the set is written as N-Triples or Turtle
+ * straight from the identifiers, rendering each term once.
+ * The identifiers, and so the triples, are valid as long as an owner tracked by the dictionary refers to the set.
+ */
+final class EncodedTripleSet implements TripleSet {
+    private static final int SUBJECT_FIRST = 0;
+    private static final int PREDICATE_FIRST = 1;
+    private static final int OBJECT_FIRST = 2;
+    private static final Pattern TURTLE_PREFIX = Pattern.compile("([A-Za-z][A-Za-z0-9_-]*)?");
+    private static final Pattern TURTLE_LOCAL_NAME = Pattern.compile("([A-Za-z_][A-Za-z0-9_-]*)?");
+    private final TermDictionary dictionary;
+    private final IntTripleTable subjectTable;
+    private final IntTripleTable predicateTable;
+    private final IntTripleTable objectTable;
+
+    private EncodedTripleSet(
+            final TermDictionary dictionary,
+            final IntTripleTable subjectTable,
+            final IntTripleTable predicateTable,
+            final IntTripleTable objectTable
+    ) {
+        this.dictionary = dictionary;
+        this.subjectTable = subjectTable;
+        this.predicateTable = predicateTable;
+        this.objectTable = objectTable;
+    }
+
+    /**
+     * Get the empty set of a dictionary.
+     * @param dictionary the dictionary of the terms of the triples
+     * @return the empty set
+     */
+    static EncodedTripleSet empty(final TermDictionary dictionary) {
+        return new EncodedTripleSet(dictionary, IntTripleTable.empty(), IntTripleTable.empty(), IntTripleTable.empty());
+    }
+
+    @Override
+    public boolean contains(final Triple triple) {
+        final int subject = this.dictionary.lookup(triple.getSubject());
+        final int predicate = this.dictionary.lookup(triple.getPredicate());
+        final int object = this.dictionary.lookup(triple.getObject());
+        return !isAbsent(subject, predicate, object) && this.subjectTable.contains(subject, predicate, object);
+    }
+
+    @Override
+    public EncodedTripleSet plus(final Triple triple) {
+        final int subject = this.dictionary.encode(triple.getSubject());
+        final int predicate = this.dictionary.encode(triple.getPredicate());
+        final int object = this.dictionary.encode(triple.getObject());
+        if (this.subjectTable.contains(subject, predicate, object)) {
+            return this;
+        }
+        return new EncodedTripleSet(
+            this.dictionary,
+            this.subjectTable.plus(subject, predicate, object),
+            this.predicateTable.plus(predicate, object, subject),
+            this.objectTable.plus(object, subject, predicate)
+        );
+    }
+
+    @Override
+    public EncodedTripleSet minus(final Triple triple) {
+        final int subject = this.dictionary.lookup(triple.getSubject());
+        final int predicate = this.dictionary.lookup(triple.getPredicate());
+        final int object = this.dictionary.lookup(triple.getObject());
+        if (isAbsent(subject, predicate, object) || !this.subjectTable.contains(subject, predicate, object)) {
+            return this;
+        }
+        return new EncodedTripleSet(
+            this.dictionary,
+            this.subjectTable.minus(subject, predicate, object),
+            this.predicateTable.minus(predicate, object, subject),
+            this.objectTable.minus(object, subject, predicate)
+        );
+    }
+
+    @Override
+    public int size() {
+        return this.subjectTable.size();
+    }
+
+    @Override
+    public Iterator<Triple> iterator() {
+        return new TripleIterator(this.subjectTable.find(), SUBJECT_FIRST);
+    }
+
+    @Override
+    public Iterator<Triple> find(final Triple triplePattern) {
+        if (triplePattern.isConcrete()) {
+            return this.contains(triplePattern) ? List.of(triplePattern).iterator() : Collections.emptyIterator();
+        }
+        final boolean subjectBound = triplePattern.getSubject().isConcrete();
+        final boolean predicateBound = triplePattern.getPredicate().isConcrete();
+        final boolean objectBound = triplePattern.getObject().isConcrete();
+        final int subject = subjectBound ? this.dictionary.lookup(triplePattern.getSubject()) : 0;
+        final int predicate = predicateBound ? this.dictionary.lookup(triplePattern.getPredicate()) : 0;
+        final int object = objectBound ? this.dictionary.lookup(triplePattern.getObject()) : 0;
+        if (isAbsent(subject, predicate, object)) {
+            return Collections.emptyIterator();
+        }
+        // The table sorted by the first bound node is chosen so that all the bound nodes are a prefix of its triples.
+        if (subjectBound) {
+            if (objectBound) {
+                return new TripleIterator(this.objectTable.find(object, subject), OBJECT_FIRST);
+            }
+            return new TripleIterator(
+                predicateBound ? this.subjectTable.find(subject, predicate) : this.subjectTable.find(subject),
+                SUBJECT_FIRST
+            );
+        } else if (predicateBound) {
+            return new TripleIterator(
+                objectBound ? this.predicateTable.find(predicate, object) : this.predicateTable.find(predicate),
+                PREDICATE_FIRST
+            );
+        } else if (objectBound) {
+            return new TripleIterator(this.objectTable.find(object), OBJECT_FIRST);
+        }
+        return this.iterator();
+    }
+
+    @Override
+    public List<Triple> toList(final Collection<Triple> triples) {
+        final int[] identifiers = new int[triples.size() * 3];
+        int index = 0;
+        for (final Triple triple : triples) {
+            identifiers[index++] = this.dictionary.encode(triple.getSubject());
+            identifiers[index++] = this.dictionary.encode(triple.getPredicate());
+            identifiers[index++] = this.dictionary.encode(triple.getObject());
+        }
+        return new EncodedTripleList(this.dictionary, identifiers);
+    }
+
+    @Override
+    public void forEachTermIdentifier(final IntConsumer action) {
+        // The other tables have the same identifiers.
+        this.subjectTable.forEachIdentifier(action);
+    }
+
+    @Override
+    public void forEachTermIdentifier(final List<Triple> triples, final IntConsumer action) {
+        if (triples instanceof EncodedTripleList) {
+            for (final int identifier : ((EncodedTripleList) triples).identifiers) {
+                action.accept(identifier);
+            }
+        }
+    }
+
+    @Override
+    public boolean write(
+            final DTKGFormat format,
+            final PrefixMapping prefixes,
+            final Appendable output
+    ) throws IOException {
+        if (format != DTKGFormat.TURTLE && format != DTKGFormat.N_TRIPLES) {
+            return false;
+        }
+        final TermRenderer renderer = new TermRenderer(
+            format == DTKGFormat.TURTLE ? new TreeMap<>(prefixes.getNsPrefixMap()) : Map.of()
+        );
+        if (format == DTKGFormat.N_TRIPLES) {
+            final IntTripleTable.Cursor cursor = this.subjectTable.find();
+            while (cursor.hasNext()) {
+                cursor.next();
+                output.append(renderer.render(cursor.getFirst())).append(' ')
+                    .append(renderer.render(cursor.getSecond())).append(' ')
+                    .append(renderer.render(cursor.getThird())).append(" .\n");
+            }
+            return true;
+        }
+        for (final Map.Entry<String, String> prefix : renderer.namespaces.entrySet()) {
+            output.append("@prefix ").append(prefix.getKey()).append(": <").append(prefix.getValue()).append("> .\n");
+        }
+        // Triples are sorted by subject and predicate, so each subject, and each predicate of a subject, is written
+        // once.
+        final IntTripleTable.Cursor cursor = this.subjectTable.find();
+        int subject = TermDictionary.NO_TERM;
+        int predicate = TermDictionary.NO_TERM;
+        while (cursor.hasNext()) {
+            cursor.next();
+            if (cursor.getFirst() != subject) {
+                if (subject != TermDictionary.NO_TERM) {
+                    output.append(" .\n\n");
+                } else if (!renderer.namespaces.isEmpty()) {
+                    output.append('\n');
+                }
+                output.append(renderer.render(cursor.getFirst())).append("\n    ")
+                    .append(renderer.render(cursor.getSecond())).append(' ');
+            } else if (cursor.getSecond() != predicate) {
+                output.append(" ;\n    ").append(renderer.render(cursor.getSecond())).append(' ');
+            } else {
+                output.append(" , ");
+            }
+            output.append(renderer.render(cursor.getThird()));
+            subject = cursor.getFirst();
+            predicate = cursor.getSecond();
+        }
+        if (subject != TermDictionary.NO_TERM) {
+            output.append(" .\n");
+        }
+        return true;
+    }
+
+    // True if any of the terms is not in the dictionary, so no triple of the set has it.
+    private static boolean isAbsent(final int subject, final int predicate, final int object) {
+        return subject == TermDictionary.NO_TERM
+            || predicate == TermDictionary.NO_TERM
+            || object == TermDictionary.NO_TERM;
+    }
+
+    /**
+     * Renderer of the terms of a set, that renders each identifier once.
+     * URIs are abbreviated with the given namespaces when their local name is a simple Turtle name.
+     */
+    private final class TermRenderer {
+        private final Map<String, String> namespaces;
+        private final Map<Integer, String> renderedTerms;
+
+        TermRenderer(final Map<String, String> namespaces) {
+            this.namespaces = namespaces;
+            this.renderedTerms = new HashMap<>();
+        }
+
+        String render(final int identifier) {
+            return this.renderedTerms.computeIfAbsent(
+                identifier,
+                key -> this.renderTerm(EncodedTripleSet.this.dictionary.decode(key))
+            );
+        }
+
+        private String renderTerm(final Node term) {
+            String abbreviation = null;
+            if (term.isURI()) {
+                // The longest namespace gives the abbreviation.
+                int namespaceLength = 0;
+                for (final Map.Entry<String, String> namespace : this.namespaces.entrySet()) {
+                    final String localName = term.getURI().startsWith(namespace.getValue())
+                        ? term.getURI().substring(namespace.getValue().length())
+                        : null;
+                    if (localName != null && namespace.getValue().length() > namespaceLength
+                            && TURTLE_PREFIX.matcher(namespace.getKey()).matches()
+                            && TURTLE_LOCAL_NAME.matcher(localName).matches()) {
+                        abbreviation = namespace.getKey() + ":" + localName;
+                        namespaceLength = namespace.getValue().length();
+                    }
+                }
+            }
+            return abbreviation == null ? NodeFmtLib.str(term) : abbreviation;
+        }
+    }
+
+    /**
+     * Iterator of the triples of a range of a table, that decodes each of them.
+     */
+    private final class TripleIterator implements Iterator<Triple> {
+        private final IntTripleTable.Cursor cursor;
+        private final int order;
+
+        TripleIterator(final IntTripleTable.Cursor cursor, final int order) {
+            this.cursor = cursor;
+            this.order = order;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.cursor.hasNext();
+        }
+
+        @Override
+        public Triple next() {
+            if (!this.cursor.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.cursor.next();
+            switch (this.order) {
+                case PREDICATE_FIRST:
+                    return this.decode(this.cursor.getThird(), this.cursor.getFirst(), this.cursor.getSecond());
+                case OBJECT_FIRST:
+                    return this.decode(this.cursor.getSecond(), this.cursor.getThird(), this.cursor.getFirst());
+                default:
+                    return this.decode(this.cursor.getFirst(), this.cursor.getSecond(), this.cursor.getThird());
+            }
+        }
+
+        private Triple decode(final int subject, final int predicate, final int object) {
+            final TermDictionary dictionary = EncodedTripleSet.this.dictionary;
+            return Triple.create(dictionary.decode(subject), dictionary.decode(predicate), dictionary.decode(object));
+        }
+    }
+
+    /**
+     * Immutable list of triples stored as the identifiers of their terms, three for each triple.
+     */
+    private static final class EncodedTripleList extends AbstractList<Triple> {
+        private final TermDictionary dictionary;
+        private final int[] identifiers;
+
+        EncodedTripleList(final TermDictionary dictionary, final int[] identifiers) {
+            super();
+            this.dictionary = dictionary;
+            this.identifiers = identifiers;
+        }
+
+        @Override
+        public Triple get(final int index) {
+            return Triple.create(
+                this.dictionary.decode(this.identifiers[index * 3]),
+                this.dictionary.decode(this.identifiers[index * 3 + 1]),
+                this.dictionary.decode(this.identifiers[index * 3 + 2])
+            );
+        }
+
+        @Override
+        public int size() {
+            return this.identifiers.length / 3;
+        }
+    }
+}
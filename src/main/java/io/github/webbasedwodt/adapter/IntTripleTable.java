@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable table of triples of int identifiers, sorted by their first, second and third identifier.
+ * The triples are stored in primitive arrays, three ints each, split in chunks of bounded size: a change copies
+ * only the chunk it touches and the array of the chunks, so consecutive tables share all the other chunks.
+ * The triples that start with some given identifiers are contiguous, so they are found with a binary search.
+ */
+final class IntTripleTable {
+    /** Maximum number of triples of a chunk, that is split in two halves when exceeded. */
+    static final int CHUNK_TRIPLES = 64;
+    private static final int TRIPLE_INTS = 3;
+    private static final IntTripleTable EMPTY = new IntTripleTable(new int[0][], 0);
+    private final int[][] chunks;
+    private final int size;
+
+    private IntTripleTable(final int[][] chunks, final int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * Get the empty table.
+     * @return the empty table
+     */
+    static IntTripleTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Check if a triple is present.
+     * @param first the first identifier
+     * @param second the second identifier
+     * @param third the third identifier
+     * @return true if the triple is present, false otherwise
+     */
+    boolean contains(final int first, final int second, final int third) {
+        final int chunkIndex = this.findChunk(first, second, third);
+        if (chunkIndex == this.chunks.length) {
+            return false;
+        }
+        final int[] chunk = this.chunks[chunkIndex];
+        final int offset = lowerBound(chunk, first, second, third);
+        return compare(chunk, offset, first, second, third) == 0;
+    }
+
+    /**
+     * Obtain the table with an additional triple.
+     * @param first the first identifier
+     * @param second the second identifier
+     * @param third the third identifier
+     * @return the new table, or this table if the triple is already present
+     */
+    IntTripleTable plus(final int first, final int second, final int third) {
+        if (this.chunks.length == 0) {
+            return new IntTripleTable(new int[][] {{first, second, third}}, 1);
+        }
+        // A triple greater than all the others is appended to the last chunk.
+        final int chunkIndex = Math.min(this.findChunk(first, second, third), this.chunks.length - 1);
+        final int[] chunk = this.chunks[chunkIndex];
+        final int offset = lowerBound(chunk, first, second, third);
+        if (offset < chunk.length && compare(chunk, offset, first, second, third) == 0) {
+            return this;
+        }
+        final int[] newChunk = new int[chunk.length + TRIPLE_INTS];
+        System.arraycopy(chunk, 0, newChunk, 0, offset);
+        newChunk[offset] = first;
+        newChunk[offset + 1] = second;
+        newChunk[offset + 2] = third;
+        System.arraycopy(chunk, offset, newChunk, offset + TRIPLE_INTS, chunk.length - offset);
+        if (newChunk.length <= CHUNK_TRIPLES * TRIPLE_INTS) {
+            final int[][] newChunks = this.chunks.clone();
+            newChunks[chunkIndex] = newChunk;
+            return new IntTripleTable(newChunks, this.size + 1);
+        }
+        final int half = newChunk.length / TRIPLE_INTS / 2 * TRIPLE_INTS;
+        final int[][] newChunks = new int[this.chunks.length + 1][];
+        System.arraycopy(this.chunks, 0, newChunks, 0, chunkIndex);
+        newChunks[chunkIndex] = Arrays.copyOfRange(newChunk, 0, half);
+        newChunks[chunkIndex + 1] = Arrays.copyOfRange(newChunk, half, newChunk.length);
+        System.arraycopy(this.chunks, chunkIndex + 1, newChunks, chunkIndex + 2, this.chunks.length - chunkIndex - 1);
+        return new IntTripleTable(newChunks, this.size + 1);
+    }
+
+    /**
+     * Obtain the table without a triple.
+     * @param first the first identifier
+     * @param second the second identifier
+     * @param third the third identifier
+     * @return the new table, or this table if the triple is not present
+     */
+    IntTripleTable minus(final int first, final int second, final int third) {
+        final int chunkIndex = this.findChunk(first, second, third);
+        if (chunkIndex == this.chunks.length) {
+            return this;
+        }
+        final int[] chunk = this.chunks[chunkIndex];
+        final int offset = lowerBound(chunk, first, second, third);
+        if (compare(chunk, offset, first, second, third) != 0) {
+            return this;
+        }
+        if (chunk.length == TRIPLE_INTS) {
+            final int[][] newChunks = new int[this.chunks.length - 1][];
+            System.arraycopy(this.chunks, 0, newChunks, 0, chunkIndex);
+            System.arraycopy(this.chunks, chunkIndex + 1, newChunks, chunkIndex, newChunks.length - chunkIndex);
+            return new IntTripleTable(newChunks, this.size - 1);
+        }
+        final int[] newChunk = new int[chunk.length - TRIPLE_INTS];
+        System.arraycopy(chunk, 0, newChunk, 0, offset);
+        System.arraycopy(chunk, offset + TRIPLE_INTS, newChunk, offset, newChunk.length - offset);
+        final int[][] newChunks = this.chunks.clone();
+        newChunks[chunkIndex] = newChunk;
+        return new IntTripleTable(newChunks, this.size - 1);
+    }
+
+    /**
+     * Get the number of triples.
+     * @return the number of triples
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Obtain a cursor on the triples that start with the given identifiers, in order.
+     * @param prefix the first identifiers of the triples, none to obtain all the triples
+     * @return the cursor
+     */
+    Cursor find(final int... prefix) {
+        if (prefix.length == 0) {
+            return new Cursor(this.chunks, 0, 0, this.chunks.length, 0);
+        }
+        // The triples that start with the prefix are the ones between the first triple that starts with it and the
+        // first triple that starts with the next prefix: identifiers are never negative, nor the maximum int.
+        final int[] from = {Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        System.arraycopy(prefix, 0, from, 0, prefix.length);
+        final int[] to = from.clone();
+        to[prefix.length - 1]++;
+        final int fromChunk = this.findChunk(from[0], from[1], from[2]);
+        final int toChunk = this.findChunk(to[0], to[1], to[2]);
+        return new Cursor(
+            this.chunks,
+            fromChunk,
+            fromChunk == this.chunks.length ? 0 : lowerBound(this.chunks[fromChunk], from[0], from[1], from[2]),
+            toChunk,
+            toChunk == this.chunks.length ? 0 : lowerBound(this.chunks[toChunk], to[0], to[1], to[2])
+        );
+    }
+
+    /**
+     * Perform an action for each identifier of each triple.
+     * @param action the action
+     */
+    void forEachIdentifier(final IntConsumer action) {
+        for (final int[] chunk : this.chunks) {
+            for (final int identifier : chunk) {
+                action.accept(identifier);
+            }
+        }
+    }
+
+    // The index of the first chunk whose last triple is not less than the given one, or the number of chunks.
+    private int findChunk(final int first, final int second, final int third) {
+        int low = 0;
+        int high = this.chunks.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final int[] chunk = this.chunks[middle];
+            if (compare(chunk, chunk.length - TRIPLE_INTS, first, second, third) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // The offset of the first triple of the chunk that is not less than the given one, or the length of the chunk.
+    private static int lowerBound(final int[] chunk, final int first, final int second, final int third) {
+        int low = 0;
+        int high = chunk.length / TRIPLE_INTS;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (compare(chunk, middle * TRIPLE_INTS, first, second, third) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low * TRIPLE_INTS;
+    }
+
+    private static int compare(
+            final int[] chunk,
+            final int offset,
+            final int first,
+            final int second,
+            final int third
+    ) {
+        if (chunk[offset] != first) {
+            return Integer.compare(chunk[offset], first);
+        }
+        if (chunk[offset + 1] != second) {
+            return Integer.compare(chunk[offset + 1], second);
+        }
+        return Integer.compare(chunk[offset + 2], third);
+    }
+
+    /**
+     * Cursor on a range of the triples of a table, that reads their identifiers without allocating them.
+     */
+    static final class Cursor {
+        private final int[][] chunks;
+        private final int endChunk;
+        private final int endOffset;
+        private int chunk;
+        private int offset;
+        private int first;
+        private int second;
+        private int third;
+
+        private Cursor(
+                final int[][] chunks,
+                final int chunk,
+                final int offset,
+                final int endChunk,
+                final int endOffset
+        ) {
+            this.chunks = chunks;
+            this.chunk = chunk;
+            this.offset = offset;
+            this.endChunk = endChunk;
+            this.endOffset = endOffset;
+        }
+
+        /**
+         * Check if there is another triple in the range.
+         * @return true if there is another triple, false otherwise
+         */
+        boolean hasNext() {
+            return this.chunk < this.endChunk || this.chunk == this.endChunk && this.offset < this.endOffset;
+        }
+
+        /**
+         * Move to the next triple of the range, whose identifiers are then available.
+         * The caller must check that there is another triple.
+         */
+        void next() {
+            final int[] currentChunk = this.chunks[this.chunk];
+            this.first = currentChunk[this.offset];
+            this.second = currentChunk[this.offset + 1];
+            this.third = currentChunk[this.offset + 2];
+            this.offset += TRIPLE_INTS;
+            if (this.offset == currentChunk.length) {
+                this.chunk++;
+                this.offset = 0;
+            }
+        }
+
+        /**
+         * Get the first identifier of the current triple.
+         * @return the identifier
+         */
+        int getFirst() {
+            return this.first;
+        }
+
+        /**
+         * Get the second identifier of the current triple.
+         * @return the identifier
+         */
+        int getSecond() {
+            return this.second;
+        }
+
+        /**
+         * Get the third identifier of the current triple.
+         * @return the identifier
+         */
+        int getThird() {
+            return this.third;
+        }
+    }
+}
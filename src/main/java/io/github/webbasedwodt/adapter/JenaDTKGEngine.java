@@ -17,7 +17,14 @@
 package io.github.webbasedwodt.adapter;
 
 import io.github.webbasedwodt.application.component.DTKGEngine;
+import io.github.webbasedwodt.application.component.DTKGStreamTarget;
+import io.github.webbasedwodt.application.component.DTKGUpdateBatch;
 import io.github.webbasedwodt.application.component.observer.DTKGObserver;
+import io.github.webbasedwodt.application.component.observer.DTKGObserverOverflowPolicy;
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+import io.github.webbasedwodt.model.dtkg.DTKGFilter;
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import io.github.webbasedwodt.model.dtkg.DTKGSnapshot;
 import io.github.webbasedwodt.model.ontology.DigitalTwinSemantics;
 import io.github.webbasedwodt.model.ontology.rdf.RdfBlankNode;
 import io.github.webbasedwodt.model.ontology.rdf.RdfLiteral;
@@ -27,72 +34,192 @@ import io.github.webbasedwodt.model.ontology.rdf.RdfUriResource;
 import it.wldt.core.state.DigitalTwinStateAction;
 import it.wldt.core.state.DigitalTwinStateProperty;
 import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
-import org.apache.jena.rdf.model.AnonId;
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.ModelFactory;
-import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFFormat;
 import org.apache.jena.riot.RDFWriter;
-import org.apache.jena.shared.Lock;
+import org.apache.jena.riot.RDFWriterRegistry;
+import org.apache.jena.shared.PrefixMapping;
 import org.apache.jena.vocabulary.RDF;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
 /**
  * This class provides an implementation of the {@link io.github.webbasedwodt.application.component.DTKGEngine} using
  * Apache Jena.
  */
 final class JenaDTKGEngine implements DTKGEngine {
+    /** Number of triples from which the DTKG is streamed instead of being written from the cached snapshot. */
+    static final int STREAMING_THRESHOLD = 10_000;
+    private static final int NODE_CACHE_CAPACITY = 4096;
+    private static final Node AVAILABLE_ACTION_ID = NodeFactory.createURI(WoDTVocabulary.AVAILABLE_ACTION_ID.getUri());
+    private static final String PROPERTY_ALREADY_PRESENT_MESSAGE =
+        "Property already present. Maybe you want to update it!";
+    private static final String WODT_PREFIX = "wodt";
+    // Turtle is written block by block, without the analysis of the pretty writer.
+    private static final Map<DTKGFormat, RDFFormat> FORMAT_SERIALIZATIONS = Map.of(
+        DTKGFormat.TURTLE, RDFFormat.TURTLE_BLOCKS,
+        DTKGFormat.N_TRIPLES, RDFFormat.NTRIPLES,
+        DTKGFormat.JSON_LD, RDFWriterRegistry.defaultSerialization(Lang.JSONLD),
+        DTKGFormat.RDF_THRIFT, RDFWriterRegistry.defaultSerialization(Lang.RDFTHRIFT),
+        DTKGFormat.RDF_PROTOBUF, RDFWriterRegistry.defaultSerialization(Lang.RDFPROTO)
+    );
+
     private final DigitalTwinSemantics digitalTwinSemantics;
-    private final Model dtkgModel;
-    private final Resource digitalTwinResource;
-    private final List<DTKGObserver> observers;
-    private final Set<String> propertyKeys;
+    private final Optional<TermDictionary> termDictionary;
+    private final Node digitalTwinNode;
+    private final JenaNodeCache nodeCache;
+    private final List<QueuedDTKGObserver> observers;
+    private final Executor observerExecutor;
+    private final Executor mappingExecutor;
+    private final PropertyMappingCache mappingCache;
+    private final int observerQueueCapacity;
+    private final DTKGObserverOverflowPolicy observerOverflowPolicy;
+    private final RdfPatchRecorder transaction;
+    private final DTKGDeltaLog deltaLog;
+    private final Object writeLock;
+    private final PrefixMapping prefixes;
+    private final AtomicReference<DTKGGraphVersion> publishedVersion;
+    private final Map<DTKGFormat, DTKGSnapshot> snapshots;
+    private final Map<DTKGFormat, Object> snapshotLocks;
+    // The persistent structures of the published versions are the only storage of the DTKG: each write derives the
+    // next ones from them, and the indexes of the triples of properties and relationships store the triples as the
+    // set does, i.e., they refer to the same Jena triples or to the same identifiers of the dictionary.
+    private TripleSet dtkgTriples;
+    private PersistentHashMap<String, String> propertyKeys;
+    private PersistentHashMap<String, List<Triple>> propertyTriples;
+    private PersistentHashMap<List<String>, List<Triple>> relationshipTriples;
+    private PersistentHashMap<String, String> propertyDomainTags;
+    private PersistentHashMap<String, String> committedDomainTags;
+    private long version;
+    private long committedVersion;
+    private String currentPropertyKey;
+    private Set<Triple> currentIndexedTriples;
 
     /**
      * Default constructor.
+     * Observers are notified synchronously, within the commit, and pending notifications are conflated.
+     * Changes are mapped sequentially, without caching, and the DTKG is stored as Jena triples.
      * @param digitalTwinUri the uri of the Digital Twin for which this class creates the DTKG
      * @param digitalTwinSemantics the digital twin semantics used for the creation of the rdf graph
      */
     JenaDTKGEngine(final URI digitalTwinUri, final DigitalTwinSemantics digitalTwinSemantics) {
-        this.digitalTwinSemantics = digitalTwinSemantics;
-        this.propertyKeys = new HashSet<>();
-        this.dtkgModel = ModelFactory.createDefaultModel();
-        this.digitalTwinResource = this.dtkgModel.createResource(digitalTwinUri.toString());
-        this.digitalTwinSemantics.getDigitalTwinTypes().forEach(type ->
-            this.digitalTwinResource.addProperty(
-                    RDF.type,
-                    this.dtkgModel.createResource(type.getUri().map(URI::toString).orElse(""))
-            )
-        );
-        this.observers = new ArrayList<>();
+        this(builder(digitalTwinUri, digitalTwinSemantics));
+    }
+
+    private JenaDTKGEngine(final Builder builder) {
+        this.digitalTwinSemantics = builder.digitalTwinSemantics;
+        this.termDictionary = builder.termDictionary;
+        this.digitalTwinNode = NodeFactory.createURI(builder.digitalTwinUri.toString());
+        this.nodeCache = new JenaNodeCache(NODE_CACHE_CAPACITY);
+        this.prefixes = PrefixMapping.Factory.create()
+            .setNsPrefix(WODT_PREFIX, WoDTVocabulary.BASE_URI.getUri())
+            .setNsPrefixes(this.digitalTwinSemantics.getPrefixes())
+            .lock();
+        this.dtkgTriples = this.termDictionary.<TripleSet>map(EncodedTripleSet::empty)
+            .orElse(PersistentTripleSet.empty());
+        this.propertyKeys = PersistentHashMap.empty();
+        this.propertyTriples = PersistentHashMap.empty();
+        this.relationshipTriples = PersistentHashMap.empty();
+        this.propertyDomainTags = PersistentHashMap.empty();
+        this.committedDomainTags = PersistentHashMap.empty();
+        this.observers = new CopyOnWriteArrayList<>();
+        this.observerExecutor = builder.observerExecutor;
+        this.observerQueueCapacity = builder.observerQueueCapacity;
+        this.observerOverflowPolicy = builder.observerOverflowPolicy;
+        this.mappingExecutor = builder.mappingExecutor;
+        this.mappingCache = builder.mappingCache;
+        this.transaction = new RdfPatchRecorder();
+        this.deltaLog = new DTKGDeltaLog(builder.deltaLogCapacity);
+        this.writeLock = new Object();
+        this.publishedVersion = new AtomicReference<>();
+        this.writeTerms(() -> {
+            this.termDictionary.ifPresent(dictionary -> {
+                dictionary.track(this, JenaDTKGEngine::forEachTermIdentifier);
+            });
+            this.digitalTwinSemantics.getDigitalTwinTypes().forEach(type -> {
+                final Triple typeTriple = Triple.create(
+                    this.digitalTwinNode,
+                    RDF.Nodes.type,
+                    this.nodeCache.getNode(type)
+                );
+                this.dtkgTriples = this.dtkgTriples.plus(typeTriple);
+            });
+            this.publishVersion();
+        });
+        this.snapshots = new ConcurrentHashMap<>();
+        this.snapshotLocks = new EnumMap<>(DTKGFormat.class);
+        Arrays.stream(DTKGFormat.values()).forEach(format -> this.snapshotLocks.put(format, new Object()));
+    }
+
+    /**
+     * Obtain a builder of an engine that allows to configure how observers are notified, how changes are mapped and
+     * how the terms of the DTKG are stored.
+     * Settings that are not configured have the defaults of the {@link WoDTDigitalAdapterConfiguration}.
+     * @param digitalTwinUri the uri of the Digital Twin for which the engine creates the DTKG
+     * @param digitalTwinSemantics the digital twin semantics used for the creation of the rdf graph
+     * @return the builder
+     */
+    static Builder builder(final URI digitalTwinUri, final DigitalTwinSemantics digitalTwinSemantics) {
+        return new Builder(digitalTwinUri, digitalTwinSemantics);
     }
 
     @Override
     public void removeDigitalTwin() {
-        this.writeModel(Model::removeAll);
+        this.writeModel(() -> {
+            // Persistent structures are iterated as they were before the write, while it replaces them.
+            this.propertyTriples.forEach((propertyKey, indexedTriples) -> {
+                this.propertyTriples = this.writeIndexedTriples(
+                    this.propertyTriples,
+                    propertyKey,
+                    propertyKey,
+                    this::removeIndexedTriples
+                );
+            });
+            this.relationshipTriples = PersistentHashMap.empty();
+            this.propertyKeys = PersistentHashMap.empty();
+            this.propertyDomainTags = PersistentHashMap.empty();
+            this.dtkgTriples.iterator().forEachRemaining(this::deleteTriple);
+        });
     }
 
     @Override
     public void addDigitalTwinProperty(final DigitalTwinStateProperty<?> property) {
-        if (propertyKeys.contains(property.getKey())) {
-            throw new IllegalStateException("Property already present. Maybe you want to update it!");
-        }
-        final Optional<List<RdfUnSubjectedTriple>> mappedData = this.digitalTwinSemantics.mapData(property);
-        if (mappedData.isPresent()) {
-            this.writeModel(model ->
-                addTriples(this.dtkgModel, this.digitalTwinResource, mappedData.get())
-            );
-            this.propertyKeys.add(property.getKey());
-        } else {
-            throw new IllegalArgumentException("Mapping for property not present.");
+        if (this.propertyKeys.containsKey(property.getKey())) {
+            throw new IllegalStateException(PROPERTY_ALREADY_PRESENT_MESSAGE);
         }
+        this.writeModel(this.prepareAddProperty(property));
     }
 
     @Override
@@ -100,27 +227,13 @@ final class JenaDTKGEngine implements DTKGEngine {
             final DigitalTwinStateProperty<?> property,
             final DigitalTwinStateProperty<?> oldProperty
     ) {
-        final Optional<List<RdfUnSubjectedTriple>> oldMappedData = this.digitalTwinSemantics.mapData(oldProperty);
-        final Optional<List<RdfUnSubjectedTriple>> mappedData = this.digitalTwinSemantics.mapData(property);
-
-        if (oldMappedData.isPresent() && mappedData.isPresent()) {
-            this.writeModel(model -> {
-                removeTriples(this.digitalTwinResource, oldMappedData.get());
-                addTriples(this.dtkgModel, this.digitalTwinResource, mappedData.get());
-            });
-        } else {
-            throw new IllegalArgumentException("Mapping for properties not present.");
-        }
+        this.writeModel(this.prepareUpdateProperty(property));
     }
 
     @Override
     public boolean removeProperty(final DigitalTwinStateProperty<?> property) {
-        final Optional<List<RdfUnSubjectedTriple>> mappedData = this.digitalTwinSemantics.mapData(property);
-        if (propertyKeys.contains(property.getKey()) && mappedData.isPresent()) {
-            this.writeModel(model ->
-                removeTriples(this.digitalTwinResource, mappedData.get())
-            );
-            this.propertyKeys.remove(property.getKey());
+        if (this.propertyKeys.containsKey(property.getKey())) {
+            this.writeModel(this.prepareRemoveProperty(property));
             return true;
         } else {
             return false;
@@ -129,23 +242,13 @@ final class JenaDTKGEngine implements DTKGEngine {
 
     @Override
     public void addRelationship(final DigitalTwinStateRelationshipInstance<?> relationshipInstance) {
-        final Optional<List<RdfUnSubjectedTriple>> mappedData = this.digitalTwinSemantics.mapData(relationshipInstance);
-        if (mappedData.isPresent()) {
-            this.writeModel(model ->
-                addTriples(this.dtkgModel, this.digitalTwinResource, mappedData.get())
-            );
-        } else {
-            throw new IllegalArgumentException("Mapping for relationship not present.");
-        }
+        this.writeModel(this.prepareAddRelationship(relationshipInstance));
     }
 
     @Override
     public boolean removeRelationship(final DigitalTwinStateRelationshipInstance<?> relationshipInstance) {
-        final Optional<List<RdfUnSubjectedTriple>> mappedData = this.digitalTwinSemantics.mapData(relationshipInstance);
-        if (mappedData.isPresent()) {
-            this.writeModel(model ->
-                removeTriples(this.digitalTwinResource, mappedData.get())
-            );
+        if (this.relationshipTriples.containsKey(getIndexKey(relationshipInstance))) {
+            this.writeModel(this.prepareRemoveRelationship(relationshipInstance));
             return true;
         } else {
             return false;
@@ -154,108 +257,706 @@ final class JenaDTKGEngine implements DTKGEngine {
 
     @Override
     public void addAction(final DigitalTwinStateAction action) {
-        this.writeModel(model ->
-            this.digitalTwinResource.addLiteral(
-                this.dtkgModel.createProperty(WoDTVocabulary.AVAILABLE_ACTION_ID.getUri()),
-                action.getKey()
-            )
-        );
+        this.writeModel(this.prepareAddAction(action));
     }
 
     @Override
     public boolean removeAction(final DigitalTwinStateAction action) {
-        if (this.dtkgModel.containsLiteral(
-            this.digitalTwinResource,
-            this.dtkgModel.getProperty(WoDTVocabulary.AVAILABLE_ACTION_ID.getUri()),
-            action.getKey())
-        ) {
-            this.writeModel(model ->
-                model.remove(
-                    this.digitalTwinResource,
-                    model.getProperty(WoDTVocabulary.AVAILABLE_ACTION_ID.getUri()),
-                    model.createTypedLiteral(action.getKey())
-                )
-            );
+        if (this.publishedVersion.get().contains(this.toActionTriple(action))) {
+            this.writeModel(this.prepareRemoveAction(action));
             return true;
         }
         return false;
     }
 
+    @Override
+    public DTKGUpdateBatch beginUpdateBatch() {
+        return new JenaDTKGUpdateBatch();
+    }
+
     @Override
     public String getCurrentDigitalTwinKnowledgeGraph() {
-        try {
-            this.dtkgModel.enterCriticalSection(Lock.READ);
-            return RDFWriter.create().lang(Lang.TTL).source(this.dtkgModel).asString();
-        } finally {
-            this.dtkgModel.leaveCriticalSection();
+        return this.getCurrentSnapshot().getDigitalTwinKnowledgeGraph();
+    }
+
+    @Override
+    public long getCurrentVersion() {
+        return this.publishedVersion.get().getVersion();
+    }
+
+    @Override
+    public DTKGSnapshot getCurrentSnapshot() {
+        return this.getCurrentSnapshot(DTKGFormat.TURTLE);
+    }
+
+    @Override
+    public DTKGSnapshot getCurrentSnapshot(final DTKGFormat format) {
+        final DTKGGraphVersion graphVersion = this.publishedVersion.get();
+        final DTKGSnapshot cachedSnapshot = this.snapshots.get(format);
+        if (cachedSnapshot != null && cachedSnapshot.getVersion() >= graphVersion.getVersion()) {
+            return cachedSnapshot;
+        }
+        // The snapshot is rebuilt lazily, when the cached one is outdated. Only the readers of the same format wait
+        // for each other, so that a version is serialized once: the writer never takes this lock.
+        synchronized (this.snapshotLocks.get(format)) {
+            final DTKGSnapshot currentSnapshot = this.snapshots.get(format);
+            if (currentSnapshot != null && currentSnapshot.getVersion() >= graphVersion.getVersion()) {
+                return currentSnapshot;
+            }
+            final DTKGSnapshot newSnapshot = serialize(graphVersion, format);
+            this.snapshots.put(format, newSnapshot);
+            return newSnapshot;
+        }
+    }
+
+    @Override
+    public DTKGSnapshot getCurrentSnapshot(final DTKGFilter filter) {
+        return this.getCurrentSnapshot(filter, DTKGFormat.TURTLE);
+    }
+
+    @Override
+    public DTKGSnapshot getCurrentSnapshot(final DTKGFilter filter, final DTKGFormat format) {
+        final DTKGGraphVersion graphVersion = this.publishedVersion.get();
+        return serialize(graphVersion.getVersion(), graphVersion.filter(filter), format);
+    }
+
+    @Override
+    public void writeCurrentDigitalTwinKnowledgeGraph(
+            final DTKGFormat format,
+            final DTKGStreamTarget target
+    ) throws IOException {
+        final DTKGGraphVersion graphVersion = this.publishedVersion.get();
+        if (graphVersion.size() >= STREAMING_THRESHOLD) {
+            final OutputStream output = target.open(graphVersion.getVersion(), false);
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            if (graphVersion.write(format, writer)) {
+                writer.flush();
+            } else {
+                RDFWriter.create()
+                    .format(FORMAT_SERIALIZATIONS.get(format))
+                    .source(graphVersion.asGraph())
+                    .output(output);
+            }
+        } else {
+            target.write(this.getCurrentSnapshot(format));
+        }
+    }
+
+    @Override
+    public Optional<List<DTKGDelta>> getDeltasSince(final long version) {
+        if (version > this.getCurrentVersion()) {
+            return Optional.empty();
         }
+        return this.deltaLog.getDeltasSince(version);
     }
 
     @Override
     public void addDTKGObserver(final DTKGObserver observer) {
-        this.observers.add(observer);
+        // Each observer has its own bounded queue, so a slow observer never delays the commit nor the other ones.
+        this.observers.add(new QueuedDTKGObserver(
+            observer,
+            this.observerExecutor,
+            this.observerQueueCapacity,
+            this.observerOverflowPolicy
+        ));
     }
 
     @Override
     public void commitUpdateTransaction() {
-        this.notifyObservers();
+        this.closeTransaction().ifPresent(delta -> {
+            this.observers.forEach(observer -> observer.notifyDTKGDelta(delta));
+            this.observers.removeIf(QueuedDTKGObserver::isDisconnected);
+        });
     }
 
-    private void notifyObservers() {
-        final String currentDtkg = this.getCurrentDigitalTwinKnowledgeGraph();
-        this.observers.forEach(observer -> observer.notifyNewDTKG(currentDtkg));
+    private static DTKGSnapshot serialize(final DTKGGraphVersion graphVersion, final DTKGFormat format) {
+        // A version is written straight from its triples when they support the format, e.g., from the identifiers of
+        // a dictionary-encoded DTKG, and through a Jena writer on its graph otherwise.
+        if (graphVersion.size() > 0) {
+            final StringBuilder output = new StringBuilder();
+            try {
+                if (graphVersion.write(format, output)) {
+                    return new DTKGSnapshot(graphVersion.getVersion(), format, output.toString());
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return serialize(graphVersion.getVersion(), graphVersion.asGraph(), format);
     }
 
-    private void addTriples(final Model model, final Resource resourceToAdd, final List<RdfUnSubjectedTriple> tripleList) {
-        tripleList.forEach(triple -> {
-            final String predicateUri = triple.getTriplePredicate().getUri().map(URI::toString).orElse("");
-            final var property = model.createProperty(predicateUri);
-            if (triple.getTripleObject() instanceof RdfBlankNode) {
-                final Resource blankNode = model.createResource(
-                        new AnonId(((RdfBlankNode) triple.getTripleObject()).getBlankNodeId()));
-                this.addTriples(model, blankNode, ((RdfBlankNode) triple.getTripleObject()).getPredicates());
-                resourceToAdd.addProperty(property, blankNode);
-            } else if (triple.getTripleObject() instanceof RdfLiteral<?>) {
-                resourceToAdd.addLiteral(property, ((RdfLiteral<?>) triple.getTripleObject()).getValue());
-            } else if (triple.getTripleObject() instanceof RdfUriResource) {
-                resourceToAdd.addProperty(
-                    property,
-                        model.createResource(((RdfUriResource) triple.getTripleObject())
-                        .getUri()
-                        .map(URI::toString)
-                        .orElse("")
-                    )
-                );
+    private static DTKGSnapshot serialize(final long version, final Graph graph, final DTKGFormat format) {
+        final RDFWriter writer = RDFWriter.create().format(FORMAT_SERIALIZATIONS.get(format)).source(graph).build();
+        if (format.isBinary()) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            if (!graph.isEmpty()) {
+                writer.output(output);
+            }
+            return new DTKGSnapshot(version, format, output.toByteArray());
+        }
+        return new DTKGSnapshot(version, format, graph.isEmpty() ? "" : writer.asString());
+    }
+
+    private Optional<DTKGDelta> closeTransaction() {
+        // The delta carries only the triples added and removed within the transaction, as an RDF Patch, and it is
+        // retained in the log, so that the changes after a version can be obtained without the whole DTKG.
+        synchronized (this.writeLock) {
+            // Changes undone within the transaction, e.g., a value that goes back to the committed one, are not
+            // notified.
+            this.transaction.cancelOpposites(0);
+            if (this.transaction.isEmpty()) {
+                return Optional.empty();
+            }
+            final long currentVersion = this.version;
+            final Map<String, String> propertyOperations = this.transaction.toPropertyRdfPatchOperations();
+            final Map<String, String> changedDomainTags = new HashMap<>();
+            propertyOperations.keySet().forEach(propertyKey -> {
+                // A property removed within the transaction keeps the domain tag it was committed with.
+                final String domainTag = this.propertyDomainTags.containsKey(propertyKey)
+                    ? this.propertyDomainTags.get(propertyKey)
+                    : this.committedDomainTags.get(propertyKey);
+                if (domainTag != null) {
+                    changedDomainTags.put(propertyKey, domainTag);
+                }
+            });
+            final DTKGDelta delta = new DTKGDelta(
+                currentVersion,
+                this.committedVersion,
+                this.transaction.toRdfPatchTransaction(),
+                propertyOperations,
+                changedDomainTags
+            );
+            this.transaction.clear();
+            this.committedVersion = currentVersion;
+            this.committedDomainTags = this.propertyDomainTags;
+            this.deltaLog.append(delta);
+            return Optional.of(delta);
+        }
+    }
+
+    private Runnable prepareAddProperty(final DigitalTwinStateProperty<?> property) {
+        final List<Triple> triples = this.mapProperty(property);
+        return () -> {
+            if (this.propertyKeys.containsKey(property.getKey())) {
+                throw new IllegalStateException(PROPERTY_ALREADY_PRESENT_MESSAGE);
+            }
+            this.writePropertyTriples(property, () -> this.addIndexedTriples(triples));
+            this.propertyKeys = this.propertyKeys.plus(property.getKey(), property.getKey());
+        };
+    }
+
+    private Runnable prepareUpdateProperty(final DigitalTwinStateProperty<?> property) {
+        final List<Triple> triples = this.mapProperty(property);
+        return () -> this.writePropertyTriples(property, () -> {
+            if (!this.updateIndexedLiterals(triples)) {
+                this.updateIndexedTriples(triples);
             }
         });
     }
 
-    private void removeTriples(final Resource resource, final List<RdfUnSubjectedTriple> tripleList) {
+    private Runnable prepareRemoveProperty(final DigitalTwinStateProperty<?> property) {
+        return () -> {
+            if (this.propertyKeys.containsKey(property.getKey())) {
+                this.writePropertyTriples(property, this::removeIndexedTriples);
+                this.propertyKeys = this.propertyKeys.minus(property.getKey());
+                this.propertyDomainTags = this.propertyDomainTags.minus(property.getKey());
+            }
+        };
+    }
+
+    private Runnable prepareAddRelationship(final DigitalTwinStateRelationshipInstance<?> relationshipInstance) {
+        final List<Triple> triples = this.toTriples(this.digitalTwinSemantics.mapData(relationshipInstance)
+            .orElseThrow(() -> new IllegalArgumentException("Mapping for relationship not present.")));
+        final List<String> indexKey = getIndexKey(relationshipInstance);
+        return () -> {
+            this.relationshipTriples = this.writeIndexedTriples(this.relationshipTriples, indexKey, null, () ->
+                this.addIndexedTriples(triples)
+            );
+        };
+    }
+
+    private Runnable prepareRemoveRelationship(final DigitalTwinStateRelationshipInstance<?> relationshipInstance) {
+        final List<String> indexKey = getIndexKey(relationshipInstance);
+        return () -> {
+            this.relationshipTriples =
+                this.writeIndexedTriples(this.relationshipTriples, indexKey, null, this::removeIndexedTriples);
+        };
+    }
+
+    private Runnable prepareAddAction(final DigitalTwinStateAction action) {
+        final Triple triple = this.toActionTriple(action);
+        return () -> this.addTriple(triple);
+    }
+
+    private Runnable prepareRemoveAction(final DigitalTwinStateAction action) {
+        final Triple triple = this.toActionTriple(action);
+        return () -> this.deleteTriple(triple);
+    }
+
+    private Triple toActionTriple(final DigitalTwinStateAction action) {
+        return Triple.create(
+            this.digitalTwinNode,
+            AVAILABLE_ACTION_ID,
+            ResourceFactory.createTypedLiteral(action.getKey()).asNode()
+        );
+    }
+
+    private List<Triple> mapProperty(final DigitalTwinStateProperty<?> property) {
+        return this.mappingCache.getTriples(property, () -> this.toTriples(this.digitalTwinSemantics.mapData(property)
+            .orElseThrow(() -> new IllegalArgumentException("Mapping for property not present."))));
+    }
+
+    private List<Triple> toTriples(final List<RdfUnSubjectedTriple> tripleList) {
+        final List<Triple> triples = new ArrayList<>(tripleList.size());
+        this.mapTriples(this.digitalTwinNode, tripleList, triples::add);
+        return triples;
+    }
+
+    private void addIndexedTriples(final List<Triple> triples) {
+        triples.forEach(triple -> {
+            this.addTriple(triple);
+            this.currentIndexedTriples.add(triple);
+        });
+    }
+
+    private boolean updateIndexedLiterals(final List<Triple> triples) {
+        // When the new triples have the same structure of the indexed ones, i.e., they differ only in the value of
+        // some literals, only the changed literal triples are replaced. Otherwise, false is returned.
+        if (this.currentIndexedTriples.size() != triples.size()) {
+            return false;
+        }
+        final Iterator<Triple> newTriples = triples.iterator();
+        for (final Triple indexedTriple : this.currentIndexedTriples) {
+            if (!haveSameStructure(indexedTriple, newTriples.next())) {
+                return false;
+            }
+        }
+        // All the old literals are deleted before adding the new ones, so that swapped values are not lost.
+        final Iterator<Triple> deletedTriples = triples.iterator();
+        for (final Triple indexedTriple : this.currentIndexedTriples) {
+            if (!indexedTriple.equals(deletedTriples.next())) {
+                this.deleteTriple(indexedTriple);
+            }
+        }
+        final Iterator<Triple> indexedTriples = this.currentIndexedTriples.iterator();
+        for (final Triple triple : triples) {
+            if (!triple.equals(indexedTriples.next())) {
+                this.addTriple(triple);
+            }
+        }
+        this.currentIndexedTriples.clear();
+        this.currentIndexedTriples.addAll(triples);
+        return true;
+    }
+
+    private void updateIndexedTriples(final List<Triple> triples) {
+        // Only the symmetric difference between the indexed triples and the new ones is applied to the graph.
+        final Set<Triple> newTriples = new LinkedHashSet<>(triples);
+        for (final Triple indexedTriple : this.currentIndexedTriples) {
+            if (!newTriples.contains(indexedTriple)) {
+                this.deleteTriple(indexedTriple);
+            }
+        }
+        for (final Triple triple : newTriples) {
+            if (!this.currentIndexedTriples.contains(triple)) {
+                this.addTriple(triple);
+            }
+        }
+        // The index follows the order of the mapping, so that the next update can be matched by structure.
+        this.currentIndexedTriples.clear();
+        this.currentIndexedTriples.addAll(newTriples);
+    }
+
+    private static boolean haveSameStructure(final Triple triple, final Triple otherTriple) {
+        return triple.getSubject().equals(otherTriple.getSubject())
+            && triple.getPredicate().equals(otherTriple.getPredicate())
+            && (triple.getObject().equals(otherTriple.getObject())
+                || triple.getObject().isLiteral() && otherTriple.getObject().isLiteral());
+    }
+
+    private void removeIndexedTriples() {
+        // The indexed triples, blank node subtrees included, are deleted straight from the graph: neither a copy of
+        // the index nor a statement is allocated for each of them.
+        this.currentIndexedTriples.forEach(this::deleteTriple);
+        this.currentIndexedTriples.clear();
+    }
+
+    private void mapTriples(
+            final Node subject,
+            final List<RdfUnSubjectedTriple> tripleList,
+            final Consumer<Triple> tripleConsumer
+    ) {
+        // Nodes are created without the model, so that data can be mapped concurrently with the other changes.
         tripleList.forEach(triple -> {
+            final Node predicate = this.nodeCache.getNode(triple.getTriplePredicate());
             if (triple.getTripleObject() instanceof RdfBlankNode) {
-                final Model modelToRemove = ModelFactory.createDefaultModel();
-                final Resource resourceOfTheModelToRemove = modelToRemove.createResource(resource.getURI());
-                this.addTriples(modelToRemove, resourceOfTheModelToRemove, List.of(triple));
-                this.dtkgModel.remove(modelToRemove);
+                final Node blankNode = this.nodeCache.getNode((RdfBlankNode) triple.getTripleObject());
+                this.mapTriples(
+                        blankNode,
+                        ((RdfBlankNode) triple.getTripleObject()).getPredicates(),
+                        tripleConsumer);
+                tripleConsumer.accept(Triple.create(subject, predicate, blankNode));
             } else if (triple.getTripleObject() instanceof RdfLiteral<?>) {
-                this.dtkgModel.remove(
-                    resource,
-                    this.dtkgModel.getProperty(triple.getTriplePredicate().getUri().map(URI::toString).orElse("")),
-                    this.dtkgModel.createTypedLiteral(((RdfLiteral<?>) triple.getTripleObject()).getValue())
-                );
+                tripleConsumer.accept(Triple.create(
+                    subject,
+                    predicate,
+                    ResourceFactory.createTypedLiteral(((RdfLiteral<?>) triple.getTripleObject()).getValue()).asNode()
+                ));
             } else if (triple.getTripleObject() instanceof RdfUriResource) {
-                this.dtkgModel.remove(
-                    resource,
-                    this.dtkgModel.getProperty(triple.getTriplePredicate().getUri().map(URI::toString).orElse("")),
-                    this.dtkgModel.getResource(((RdfUriResource) triple.getTripleObject()).getUri().map(URI::toString).orElse(""))
-                );
+                tripleConsumer.accept(Triple.create(
+                    subject,
+                    predicate,
+                    this.nodeCache.getNode((RdfUriResource) triple.getTripleObject())
+                ));
             }
         });
     }
 
-    private void writeModel(final Consumer<Model> modelConsumer) {
-        this.dtkgModel.enterCriticalSection(Lock.WRITE);
-        modelConsumer.accept(this.dtkgModel);
-        this.dtkgModel.leaveCriticalSection();
+    private void addTriple(final Triple triple) {
+        // Only the operations that actually change the graph are recorded, so that re-applying the same data
+        // results in an empty transaction.
+        if (!this.dtkgTriples.contains(triple)) {
+            this.dtkgTriples = this.dtkgTriples.plus(triple);
+            this.transaction.recordAddition(triple, this.currentPropertyKey);
+        }
+    }
+
+    private void deleteTriple(final Triple triple) {
+        if (this.dtkgTriples.contains(triple)) {
+            this.dtkgTriples = this.dtkgTriples.minus(triple);
+            this.transaction.recordDeletion(triple, this.currentPropertyKey);
+        }
+    }
+
+    private void writePropertyTriples(final DigitalTwinStateProperty<?> property, final Runnable write) {
+        if (!this.propertyDomainTags.containsKey(property.getKey())) {
+            this.digitalTwinSemantics.getDomainTag(property)
+                .flatMap(RdfUriResource::getUri)
+                .ifPresent(domainTag -> {
+                    this.propertyDomainTags = this.propertyDomainTags.plus(property.getKey(), domainTag.toString());
+                });
+        }
+        this.propertyTriples =
+            this.writeIndexedTriples(this.propertyTriples, property.getKey(), property.getKey(), write);
+    }
+
+    private <K> PersistentHashMap<K, List<Triple>> writeIndexedTriples(
+            final PersistentHashMap<K, List<Triple>> index,
+            final K indexKey,
+            final String propertyKey,
+            final Runnable write
+    ) {
+        // The triples added and removed by the write are tracked in the index under the given key, and they
+        // are attributed to the given property key, if any, in the transaction. The new index is returned.
+        final List<Triple> indexedTriples = index.get(indexKey);
+        this.currentIndexedTriples = indexedTriples == null
+            ? new LinkedHashSet<>()
+            : new LinkedHashSet<>(indexedTriples);
+        this.currentPropertyKey = propertyKey;
+        try {
+            write.run();
+            // The index stores the triples as the set of the DTKG does, it does not copy the Jena triples.
+            return this.currentIndexedTriples.isEmpty()
+                ? index.minus(indexKey)
+                : index.plus(indexKey, this.dtkgTriples.toList(this.currentIndexedTriples));
+        } finally {
+            this.currentIndexedTriples = null;
+            this.currentPropertyKey = null;
+        }
+    }
+
+    private static List<String> getIndexKey(final DigitalTwinStateRelationshipInstance<?> relationshipInstance) {
+        return Arrays.asList(relationshipInstance.getRelationshipName(), relationshipInstance.getKey());
+    }
+
+    private void writeModel(final Runnable write) {
+        this.writeTerms(() -> this.writeModelLocked(write));
+    }
+
+    private void writeModelLocked(final Runnable write) {
+        // Writers are serialized, and each write publishes an immutable version through an atomic reference, so
+        // readers never lock: they read the version they obtained, which shares the unchanged triples with the next.
+        synchronized (this.writeLock) {
+            final Savepoint savepoint = new Savepoint();
+            boolean completed = false;
+            try {
+                write.run();
+                completed = true;
+            } finally {
+                if (!completed) {
+                    // A failed write is undone as a whole, so that neither readers nor observers ever see a
+                    // partially applied write, e.g., half of a batch.
+                    savepoint.rollback();
+                }
+            }
+            // A write whose changes cancel each other out, e.g., a batch that adds and removes the same triple,
+            // publishes no version.
+            this.transaction.cancelOpposites(savepoint.recordedOperations);
+            if (this.transaction.size() != savepoint.recordedOperations) {
+                this.version++;
+                this.publishVersion();
+            }
+        }
+    }
+
+    private void writeTerms(final Runnable write) {
+        // Writes that encode terms never overlap a sweep of the dictionary, which keeps the terms of the engine and
+        // of the versions that are still reachable.
+        this.termDictionary.ifPresentOrElse(dictionary -> dictionary.write(write), write);
+    }
+
+    private void publishVersion() {
+        final DTKGGraphVersion graphVersion = new DTKGGraphVersion(
+            this.version,
+            this.dtkgTriples,
+            this.propertyTriples,
+            this.propertyDomainTags,
+            this.prefixes
+        );
+        this.termDictionary.ifPresent(dictionary -> {
+            dictionary.track(graphVersion, DTKGGraphVersion::forEachTermIdentifier);
+        });
+        this.publishedVersion.set(graphVersion);
+    }
+
+    private void forEachTermIdentifier(final IntConsumer action) {
+        // The identifiers of the terms of the state written by the engine, including the triples of relationships
+        // that no version holds.
+        this.dtkgTriples.forEachTermIdentifier(action);
+        this.propertyTriples.forEach((propertyKey, indexedTriples) -> {
+            this.dtkgTriples.forEachTermIdentifier(indexedTriples, action);
+        });
+        this.relationshipTriples.forEach((indexKey, indexedTriples) -> {
+            this.dtkgTriples.forEachTermIdentifier(indexedTriples, action);
+        });
+    }
+
+    /**
+     * State of the DTKG within a write, to which the write can be rolled back.
+     * The persistent structures it started from are restored, together with the operations recorded until then.
+     */
+    private final class Savepoint {
+        private final int recordedOperations;
+        private final TripleSet triples;
+        private final PersistentHashMap<String, String> keys;
+        private final PersistentHashMap<String, List<Triple>> triplesByProperty;
+        private final PersistentHashMap<List<String>, List<Triple>> triplesByRelationship;
+        private final PersistentHashMap<String, String> domainTags;
+
+        Savepoint() {
+            this.recordedOperations = transaction.size();
+            this.triples = dtkgTriples;
+            this.keys = propertyKeys;
+            this.triplesByProperty = propertyTriples;
+            this.triplesByRelationship = relationshipTriples;
+            this.domainTags = propertyDomainTags;
+        }
+
+        void rollback() {
+            dtkgTriples = this.triples;
+            propertyKeys = this.keys;
+            propertyTriples = this.triplesByProperty;
+            relationshipTriples = this.triplesByRelationship;
+            propertyDomainTags = this.domainTags;
+            transaction.truncate(this.recordedOperations);
+        }
+    }
+
+    /**
+     * Batch of changes that are mapped when they are added, and applied within a single write.
+     */
+    private final class JenaDTKGUpdateBatch implements DTKGUpdateBatch {
+        private final List<CompletableFuture<Runnable>> changes = new ArrayList<>();
+
+        @Override
+        public DTKGUpdateBatch addDigitalTwinProperty(final DigitalTwinStateProperty<?> property) {
+            return this.prepare(() -> prepareAddProperty(property));
+        }
+
+        @Override
+        public DTKGUpdateBatch updateDigitalTwinProperty(
+                final DigitalTwinStateProperty<?> property,
+                final DigitalTwinStateProperty<?> oldProperty
+        ) {
+            return this.prepare(() -> prepareUpdateProperty(property));
+        }
+
+        @Override
+        public DTKGUpdateBatch removeProperty(final DigitalTwinStateProperty<?> property) {
+            return this.prepare(() -> prepareRemoveProperty(property));
+        }
+
+        @Override
+        public DTKGUpdateBatch addRelationship(final DigitalTwinStateRelationshipInstance<?> relationshipInstance) {
+            return this.prepare(() -> prepareAddRelationship(relationshipInstance));
+        }
+
+        @Override
+        public DTKGUpdateBatch removeRelationship(final DigitalTwinStateRelationshipInstance<?> relationshipInstance) {
+            return this.prepare(() -> prepareRemoveRelationship(relationshipInstance));
+        }
+
+        @Override
+        public DTKGUpdateBatch addAction(final DigitalTwinStateAction action) {
+            return this.prepare(() -> prepareAddAction(action));
+        }
+
+        @Override
+        public DTKGUpdateBatch removeAction(final DigitalTwinStateAction action) {
+            return this.prepare(() -> prepareRemoveAction(action));
+        }
+
+        @Override
+        public void apply() {
+            if (this.changes.isEmpty()) {
+                return;
+            }
+            // All the changes are mapped before entering the write, and they are applied in the order they were added.
+            final List<Runnable> preparedChanges = new ArrayList<>(this.changes.size());
+            this.changes.forEach(change -> preparedChanges.add(getPreparedChange(change)));
+            writeModel(() -> preparedChanges.forEach(Runnable::run));
+        }
+
+        @Override
+        public void applySkippingFailedChanges(final Consumer<RuntimeException> onSkippedChange) {
+            final List<RuntimeException> failures = new ArrayList<>();
+            final List<Runnable> preparedChanges = new ArrayList<>(this.changes.size());
+            for (final CompletableFuture<Runnable> change : this.changes) {
+                try {
+                    preparedChanges.add(getPreparedChange(change));
+                } catch (final RuntimeException e) {
+                    failures.add(e);
+                }
+            }
+            if (!preparedChanges.isEmpty()) {
+                writeModel(() -> preparedChanges.forEach(preparedChange -> {
+                    // Each change is rolled back on its own, so that the others are still applied all at once.
+                    final Savepoint savepoint = new Savepoint();
+                    try {
+                        preparedChange.run();
+                    } catch (final RuntimeException e) {
+                        savepoint.rollback();
+                        failures.add(e);
+                    }
+                }));
+            }
+            failures.forEach(onSkippedChange);
+        }
+
+        private Runnable getPreparedChange(final CompletableFuture<Runnable> change) {
+            try {
+                return change.join();
+            } catch (final CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        private DTKGUpdateBatch prepare(final Supplier<Runnable> preparation) {
+            this.changes.add(CompletableFuture.supplyAsync(preparation, mappingExecutor));
+            return this;
+        }
+    }
+
+    /**
+     * Builder of a {@link JenaDTKGEngine}.
+     * Observers are notified synchronously, within the commit, and changes are mapped sequentially, without caching,
+     * unless configured otherwise.
+     */
+    static final class Builder {
+        private final URI digitalTwinUri;
+        private final DigitalTwinSemantics digitalTwinSemantics;
+        private Executor observerExecutor;
+        private int observerQueueCapacity;
+        private DTKGObserverOverflowPolicy observerOverflowPolicy;
+        private int deltaLogCapacity;
+        private Executor mappingExecutor;
+        private PropertyMappingCache mappingCache;
+        private Optional<TermDictionary> termDictionary;
+
+        private Builder(final URI digitalTwinUri, final DigitalTwinSemantics digitalTwinSemantics) {
+            this.digitalTwinUri = digitalTwinUri;
+            this.digitalTwinSemantics = digitalTwinSemantics;
+            this.observerExecutor = Runnable::run;
+            this.observerQueueCapacity = WoDTDigitalAdapterConfiguration.DEFAULT_DTKG_OBSERVER_QUEUE_CAPACITY;
+            this.observerOverflowPolicy = DTKGObserverOverflowPolicy.CONFLATE;
+            this.deltaLogCapacity = WoDTDigitalAdapterConfiguration.DEFAULT_DTKG_DELTA_LOG_CAPACITY;
+            this.mappingExecutor = Runnable::run;
+            this.mappingCache = PropertyMappingCache.disabled();
+            this.termDictionary = Optional.empty();
+        }
+
+        /**
+         * Notify the observers through the specified executor.
+         * @param executor the executor used to notify the observers
+         * @return this builder
+         */
+        Builder withObserverExecutor(final Executor executor) {
+            this.observerExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Notify each observer through a queue with the specified capacity and overflow policy.
+         * @param capacity the maximum number of pending notifications for each observer
+         * @param overflowPolicy the policy to apply when an observer exceeds its pending notifications
+         * @return this builder
+         */
+        Builder withObserverQueue(final int capacity, final DTKGObserverOverflowPolicy overflowPolicy) {
+            this.observerQueueCapacity = capacity;
+            this.observerOverflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Retain the specified number of the most recent deltas.
+         * @param capacity the number of deltas to retain
+         * @return this builder
+         */
+        Builder withDeltaLog(final int capacity) {
+            this.deltaLogCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * Map the changes of a {@link DTKGUpdateBatch} through the specified executor.
+         * @param executor the executor used to map the changes
+         * @return this builder
+         */
+        Builder withMappingExecutor(final Executor executor) {
+            this.mappingExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Cache the property mappings in the specified cache.
+         * @param cache the cache of the property mappings
+         * @return this builder
+         */
+        Builder withMappingCache(final PropertyMappingCache cache) {
+            this.mappingCache = cache;
+            return this;
+        }
+
+        /**
+         * Store the triples of the DTKG as the identifiers of their terms in the specified dictionary, as
+         * {@link DTKGStorage#DICTIONARY_ENCODED} does.
+         * @param dictionary the dictionary of the terms
+         * @return this builder
+         */
+        Builder withTermDictionary(final TermDictionary dictionary) {
+            this.termDictionary = Optional.of(dictionary);
+            return this;
+        }
+
+        /**
+         * Create the engine.
+         * @return the engine
+         */
+        JenaDTKGEngine build() {
+            return new JenaDTKGEngine(this);
+        }
     }
 }
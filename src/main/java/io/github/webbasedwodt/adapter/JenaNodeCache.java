@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.ontology.rdf.RdfBlankNode;
+import io.github.webbasedwodt.model.ontology.rdf.RdfUriResource;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe cache of the Jena {@link Node}s to which the resources of the Digital Twin semantics are converted.
+ * Resources are interned by value, so converting the same URI or blank node id again, e.g., at every update of a
+ * property, allocates neither strings nor nodes.
+ * The cache is bounded: once full, new resources are converted without being cached.
+ */
+final class JenaNodeCache {
+    private final int capacity;
+    private final Map<RdfUriResource, Node> uriNodes;
+    private final Map<String, Node> blankNodes;
+
+    /**
+     * Default constructor.
+     * @param capacity the maximum number of cached nodes of each kind
+     */
+    JenaNodeCache(final int capacity) {
+        this.capacity = capacity;
+        this.uriNodes = new ConcurrentHashMap<>();
+        this.blankNodes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the node of a resource with a URI.
+     * @param resource the resource
+     * @return the URI node
+     */
+    Node getNode(final RdfUriResource resource) {
+        final Node node = this.uriNodes.get(resource);
+        if (node != null) {
+            return node;
+        }
+        final Node newNode = NodeFactory.createURI(resource.getUri().map(URI::toString).orElse(""));
+        if (this.uriNodes.size() < this.capacity) {
+            this.uriNodes.putIfAbsent(resource, newNode);
+        }
+        return newNode;
+    }
+
+    /**
+     * Get the node of a blank node, identified by its blank node id.
+     * @param blankNode the blank node
+     * @return the blank node
+     */
+    Node getNode(final RdfBlankNode blankNode) {
+        final Node node = this.blankNodes.get(blankNode.getBlankNodeId());
+        if (node != null) {
+            return node;
+        }
+        final Node newNode = NodeFactory.createBlankNode(blankNode.getBlankNodeId());
+        if (this.blankNodes.size() < this.capacity) {
+            this.blankNodes.putIfAbsent(blankNode.getBlankNodeId(), newNode);
+        }
+        return newNode;
+    }
+}
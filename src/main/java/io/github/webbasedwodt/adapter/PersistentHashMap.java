@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map, implemented as a hash array mapped trie.
+ * Adding or removing an entry copies only the path from the root to the entry, so the new map shares all the
+ * other nodes with the previous one: each version costs a few small arrays and it can be read by any thread
+ * without synchronization.
+ * Keys and values cannot be null.
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class PersistentHashMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int SPREAD_SHIFT = 16;
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+    // The root is null, a Leaf or a Branch.
+    private final Object root;
+    private final int size;
+
+    private PersistentHashMap(final Object root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Obtain the empty map.
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Get the value associated to a key.
+     * @param key the key
+     * @return the value, or null if the key is not present
+     */
+    V get(final Object key) {
+        final int hash = hash(key);
+        Object node = this.root;
+        int shift = 0;
+        while (node instanceof Branch) {
+            final Branch branch = (Branch) node;
+            final int bit = bit(hash, shift);
+            if ((branch.bitmap & bit) == 0) {
+                return null;
+            }
+            node = branch.children[branch.index(bit)];
+            shift += BITS;
+        }
+        for (Leaf<?, ?> leaf = (Leaf<?, ?>) node; leaf != null; leaf = leaf.next) {
+            if (leaf.hash == hash && leaf.key.equals(key)) {
+                return this.valueOf(leaf);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check if a key is present.
+     * @param key the key
+     * @return true if the key is present, false otherwise
+     */
+    boolean containsKey(final Object key) {
+        return this.get(key) != null;
+    }
+
+    /**
+     * Obtain the map with an additional entry, replacing the one of the same key, if any.
+     * @param key the key
+     * @param value the value
+     * @return the new map
+     */
+    PersistentHashMap<K, V> plus(final K key, final V value) {
+        final V currentValue = this.get(key);
+        if (value.equals(currentValue)) {
+            return this;
+        }
+        return new PersistentHashMap<>(
+            insert(this.root, new Leaf<>(hash(key), key, value, null), 0),
+            currentValue == null ? this.size + 1 : this.size
+        );
+    }
+
+    /**
+     * Obtain the map without the entry of a key.
+     * @param key the key
+     * @return the new map, or this map if the key is not present
+     */
+    PersistentHashMap<K, V> minus(final Object key) {
+        if (!this.containsKey(key)) {
+            return this;
+        }
+        return new PersistentHashMap<>(remove(this.root, hash(key), key, 0), this.size - 1);
+    }
+
+    /**
+     * Get the number of entries.
+     * @return the number of entries
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Check if the map is empty.
+     * @return true if there are no entries, false otherwise
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Perform an action for each entry, in no particular order.
+     * @param action the action
+     */
+    void forEach(final BiConsumer<? super K, ? super V> action) {
+        final Iterator<Leaf<?, ?>> leaves = new LeafIterator(this.root);
+        while (leaves.hasNext()) {
+            final Leaf<?, ?> leaf = leaves.next();
+            action.accept(this.keyOf(leaf), this.valueOf(leaf));
+        }
+    }
+
+    /**
+     * Iterate the keys, in no particular order.
+     * @return the iterator of the keys
+     */
+    Iterator<K> keyIterator() {
+        final Iterator<Leaf<?, ?>> leaves = new LeafIterator(this.root);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return leaves.hasNext();
+            }
+
+            @Override
+            public K next() {
+                return keyOf(leaves.next());
+            }
+        };
+    }
+
+    /**
+     * Iterate the values, in no particular order.
+     * @return the iterator of the values
+     */
+    Iterator<V> valueIterator() {
+        final Iterator<Leaf<?, ?>> leaves = new LeafIterator(this.root);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return leaves.hasNext();
+            }
+
+            @Override
+            public V next() {
+                return valueOf(leaves.next());
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyOf(final Leaf<?, ?> leaf) {
+        return (K) leaf.key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueOf(final Leaf<?, ?> leaf) {
+        return (V) leaf.value;
+    }
+
+    private static Object insert(final Object node, final Leaf<?, ?> leaf, final int shift) {
+        if (node == null) {
+            return leaf;
+        }
+        if (node instanceof Leaf) {
+            final Leaf<?, ?> existingLeaf = (Leaf<?, ?>) node;
+            if (existingLeaf.hash == leaf.hash) {
+                // Keys with the same hash are chained in the same leaf.
+                return new Leaf<>(leaf.hash, leaf.key, leaf.value, withoutKey(existingLeaf, leaf.key));
+            }
+            return merge(existingLeaf, leaf, shift);
+        }
+        final Branch branch = (Branch) node;
+        final int bit = bit(leaf.hash, shift);
+        final int index = branch.index(bit);
+        if ((branch.bitmap & bit) == 0) {
+            final Object[] children = new Object[branch.children.length + 1];
+            System.arraycopy(branch.children, 0, children, 0, index);
+            children[index] = leaf;
+            System.arraycopy(branch.children, index, children, index + 1, branch.children.length - index);
+            return new Branch(branch.bitmap | bit, children);
+        }
+        final Object[] children = branch.children.clone();
+        children[index] = insert(children[index], leaf, shift + BITS);
+        return new Branch(branch.bitmap, children);
+    }
+
+    private static Object merge(final Leaf<?, ?> leaf, final Leaf<?, ?> otherLeaf, final int shift) {
+        // The two hashes differ, so they are split by the trie before the shift exceeds their bits.
+        final int bit = bit(leaf.hash, shift);
+        final int otherBit = bit(otherLeaf.hash, shift);
+        if (bit == otherBit) {
+            return new Branch(bit, new Object[] {merge(leaf, otherLeaf, shift + BITS)});
+        }
+        return new Branch(
+            bit | otherBit,
+            Integer.compareUnsigned(bit, otherBit) < 0 ? new Object[] {leaf, otherLeaf} : new Object[] {otherLeaf, leaf}
+        );
+    }
+
+    private static Object remove(final Object node, final int hash, final Object key, final int shift) {
+        if (node instanceof Leaf) {
+            final Leaf<?, ?> leaf = (Leaf<?, ?>) node;
+            return leaf.hash == hash ? withoutKey(leaf, key) : leaf;
+        }
+        final Branch branch = (Branch) node;
+        final int bit = bit(hash, shift);
+        if ((branch.bitmap & bit) == 0) {
+            return branch;
+        }
+        final int index = branch.index(bit);
+        final Object child = remove(branch.children[index], hash, key, shift + BITS);
+        if (child == null) {
+            if (branch.children.length == 1) {
+                return null;
+            }
+            final Object[] children = new Object[branch.children.length - 1];
+            System.arraycopy(branch.children, 0, children, 0, index);
+            System.arraycopy(branch.children, index + 1, children, index, children.length - index);
+            // A branch left with a single leaf is replaced by the leaf, so the trie does not keep useless levels.
+            return children.length == 1 && children[0] instanceof Leaf
+                ? children[0]
+                : new Branch(branch.bitmap ^ bit, children);
+        }
+        if (branch.children.length == 1 && child instanceof Leaf) {
+            return child;
+        }
+        final Object[] children = branch.children.clone();
+        children[index] = child;
+        return new Branch(branch.bitmap, children);
+    }
+
+    private static Leaf<?, ?> withoutKey(final Leaf<?, ?> leaf, final Object key) {
+        if (leaf == null) {
+            return null;
+        }
+        if (leaf.key.equals(key)) {
+            return leaf.next;
+        }
+        final Leaf<?, ?> next = withoutKey(leaf.next, key);
+        return next == leaf.next ? leaf : new Leaf<>(leaf.hash, leaf.key, leaf.value, next);
+    }
+
+    private static int hash(final Object key) {
+        final int hash = key.hashCode();
+        return hash ^ (hash >>> SPREAD_SHIFT);
+    }
+
+    private static int bit(final int hash, final int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Entry of the map, chained to the other entries with the same hash.
+     */
+    private static final class Leaf<K, V> {
+        private final int hash;
+        private final K key;
+        private final V value;
+        private final Leaf<?, ?> next;
+
+        Leaf(final int hash, final K key, final V value, final Leaf<?, ?> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Inner node of the trie, with a child for each bit set in its bitmap.
+     */
+    private static final class Branch {
+        private final int bitmap;
+        private final Object[] children;
+
+        Branch(final int bitmap, final Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        int index(final int bit) {
+            return Integer.bitCount(this.bitmap & (bit - 1));
+        }
+    }
+
+    /**
+     * Depth-first iterator of the leaves of a trie.
+     */
+    private static final class LeafIterator implements Iterator<Leaf<?, ?>> {
+        private final Deque<Object> pendingNodes;
+        private Leaf<?, ?> nextLeaf;
+
+        LeafIterator(final Object root) {
+            this.pendingNodes = new ArrayDeque<>();
+            if (root != null) {
+                this.pendingNodes.push(root);
+            }
+            this.advance(null);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextLeaf != null;
+        }
+
+        @Override
+        public Leaf<?, ?> next() {
+            if (this.nextLeaf == null) {
+                throw new NoSuchElementException();
+            }
+            final Leaf<?, ?> leaf = this.nextLeaf;
+            this.advance(leaf.next);
+            return leaf;
+        }
+
+        private void advance(final Leaf<?, ?> chainedLeaf) {
+            this.nextLeaf = chainedLeaf;
+            while (this.nextLeaf == null && !this.pendingNodes.isEmpty()) {
+                final Object node = this.pendingNodes.pop();
+                if (node instanceof Leaf) {
+                    this.nextLeaf = (Leaf<?, ?>) node;
+                } else {
+                    final Object[] children = ((Branch) node).children;
+                    for (int index = children.length - 1; index >= 0; index--) {
+                        this.pendingNodes.push(children[index]);
+                    }
+                }
+            }
+        }
+    }
+}
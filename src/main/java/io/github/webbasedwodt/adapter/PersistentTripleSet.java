@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.util.iterator.WrappedIterator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of Jena triples, indexed by subject, predicate and object through {@link PersistentHashMap}s.
+ * Its triples are iterated subject by subject, so that writers that group the triples of a subject, e.g., the
+ * Turtle one, write each subject once, and the triples that match a pattern are found from the smallest index
+ * group of its concrete nodes, without scanning the others.
+ */
+final class PersistentTripleSet implements TripleSet {
+    private static final PersistentTripleSet EMPTY = new PersistentTripleSet(
+        PersistentHashMap.empty(),
+        PersistentHashMap.empty(),
+        PersistentHashMap.empty(),
+        0
+    );
+    private final PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> subjectTriples;
+    private final PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> predicateTriples;
+    private final PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> objectTriples;
+    private final int size;
+
+    private PersistentTripleSet(
+            final PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> subjectTriples,
+            final PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> predicateTriples,
+            final PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> objectTriples,
+            final int size
+    ) {
+        this.subjectTriples = subjectTriples;
+        this.predicateTriples = predicateTriples;
+        this.objectTriples = objectTriples;
+        this.size = size;
+    }
+
+    /**
+     * Get the empty set.
+     * @return the empty set
+     */
+    static PersistentTripleSet empty() {
+        return EMPTY;
+    }
+
+    @Override
+    public boolean contains(final Triple triple) {
+        final PersistentHashMap<Triple, Triple> triples = this.subjectTriples.get(triple.getSubject());
+        return triples != null && triples.containsKey(triple);
+    }
+
+    @Override
+    public PersistentTripleSet plus(final Triple triple) {
+        if (this.contains(triple)) {
+            return this;
+        }
+        return new PersistentTripleSet(
+            plus(this.subjectTriples, triple.getSubject(), triple),
+            plus(this.predicateTriples, triple.getPredicate(), triple),
+            plus(this.objectTriples, triple.getObject(), triple),
+            this.size + 1
+        );
+    }
+
+    @Override
+    public PersistentTripleSet minus(final Triple triple) {
+        if (!this.contains(triple)) {
+            return this;
+        }
+        return new PersistentTripleSet(
+            minus(this.subjectTriples, triple.getSubject(), triple),
+            minus(this.predicateTriples, triple.getPredicate(), triple),
+            minus(this.objectTriples, triple.getObject(), triple),
+            this.size - 1
+        );
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Iterator<Triple> iterator() {
+        return new SubjectGroupedIterator(this.subjectTriples.valueIterator());
+    }
+
+    @Override
+    public Iterator<Triple> find(final Triple triplePattern) {
+        if (triplePattern.isConcrete()) {
+            return this.contains(triplePattern) ? List.of(triplePattern).iterator() : Collections.emptyIterator();
+        }
+        final PersistentHashMap<Triple, Triple> candidates = smallest(
+            smallest(
+                group(this.subjectTriples, triplePattern.getSubject()),
+                group(this.predicateTriples, triplePattern.getPredicate())
+            ),
+            group(this.objectTriples, triplePattern.getObject())
+        );
+        return candidates == null
+            ? this.iterator()
+            : WrappedIterator.create(candidates.keyIterator()).filterKeep(triplePattern::matches);
+    }
+
+    @Override
+    public List<Triple> toList(final Collection<Triple> triples) {
+        return List.copyOf(triples);
+    }
+
+    @Override
+    public void forEachTermIdentifier(final IntConsumer action) {
+        // The triples refer to their terms, not to identifiers.
+    }
+
+    @Override
+    public void forEachTermIdentifier(final List<Triple> triples, final IntConsumer action) {
+        // The triples refer to their terms, not to identifiers.
+    }
+
+    @Override
+    public boolean write(final DTKGFormat format, final PrefixMapping prefixes, final Appendable output) {
+        return false;
+    }
+
+    // The group of the triples with a node in the index, empty if the node is absent, null if it is not concrete.
+    private static PersistentHashMap<Triple, Triple> group(
+            final PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> index,
+            final Node node
+    ) {
+        if (!node.isConcrete()) {
+            return null;
+        }
+        final PersistentHashMap<Triple, Triple> triples = index.get(node);
+        return triples == null ? PersistentHashMap.empty() : triples;
+    }
+
+    private static PersistentHashMap<Triple, Triple> smallest(
+            final PersistentHashMap<Triple, Triple> group,
+            final PersistentHashMap<Triple, Triple> otherGroup
+    ) {
+        if (group == null || otherGroup == null) {
+            return group == null ? otherGroup : group;
+        }
+        return otherGroup.size() < group.size() ? otherGroup : group;
+    }
+
+    private static PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> plus(
+            final PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> index,
+            final Node node,
+            final Triple triple
+    ) {
+        final PersistentHashMap<Triple, Triple> triples = index.get(node);
+        final PersistentHashMap<Triple, Triple> currentTriples = triples == null ? PersistentHashMap.empty() : triples;
+        return index.plus(node, currentTriples.plus(triple, triple));
+    }
+
+    private static PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> minus(
+            final PersistentHashMap<Node, PersistentHashMap<Triple, Triple>> index,
+            final Node node,
+            final Triple triple
+    ) {
+        final PersistentHashMap<Triple, Triple> remainingTriples = index.get(node).minus(triple);
+        return remainingTriples.isEmpty() ? index.minus(node) : index.plus(node, remainingTriples);
+    }
+
+    /**
+     * Iterator that exhausts the triples of a subject before moving to the next subject.
+     */
+    private static final class SubjectGroupedIterator implements Iterator<Triple> {
+        private final Iterator<PersistentHashMap<Triple, Triple>> subjects;
+        private Iterator<Triple> triples;
+
+        SubjectGroupedIterator(final Iterator<PersistentHashMap<Triple, Triple>> subjects) {
+            this.subjects = subjects;
+            this.triples = Collections.emptyIterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.triples.hasNext() && this.subjects.hasNext()) {
+                this.triples = this.subjects.next().keyIterator();
+            }
+            return this.triples.hasNext();
+        }
+
+        @Override
+        public Triple next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.triples.next();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import it.wldt.core.state.DigitalTwinStateProperty;
+import org.apache.jena.graph.Triple;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of the triples to which the values of the selected properties are mapped.
+ * It is meant for properties with few distinct values, e.g., booleans and enums, whose repeated values can reuse
+ * the triples already mapped, skipping the semantics entirely.
+ * Values are compared with equals, so they must be immutable.
+ */
+final class PropertyMappingCache {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private final Set<String> propertyKeys;
+    private final int capacity;
+    private final Map<List<Object>, List<Triple>> mappings;
+
+    /**
+     * Default constructor.
+     * @param propertyKeys the keys of the properties whose mappings are cached
+     * @param capacity the maximum number of cached mappings
+     */
+    PropertyMappingCache(final Set<String> propertyKeys, final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity of the cache cannot be negative.");
+        }
+        this.propertyKeys = capacity > 0 ? Set.copyOf(propertyKeys) : Set.of();
+        this.capacity = capacity;
+        // Access order, so that the first entry is always the least recently used one.
+        this.mappings = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    }
+
+    /**
+     * Create a cache that caches nothing.
+     * @return the disabled cache
+     */
+    static PropertyMappingCache disabled() {
+        return new PropertyMappingCache(Set.of(), 0);
+    }
+
+    /**
+     * Get the triples to which a property is mapped, mapping it only if the property is not cached or its value has
+     * not been mapped yet.
+     * @param property the property
+     * @param mapping the mapping of the property, that can be evaluated concurrently with other mappings
+     * @return the triples to which the property is mapped
+     */
+    List<Triple> getTriples(final DigitalTwinStateProperty<?> property, final Supplier<List<Triple>> mapping) {
+        if (!this.propertyKeys.contains(property.getKey())) {
+            return mapping.get();
+        }
+        final List<Object> cacheKey = Arrays.asList(property.getKey(), property.getValue());
+        synchronized (this.mappings) {
+            final List<Triple> cachedTriples = this.mappings.get(cacheKey);
+            if (cachedTriples != null) {
+                return cachedTriples;
+            }
+        }
+        final List<Triple> triples = List.copyOf(mapping.get());
+        synchronized (this.mappings) {
+            this.mappings.put(cacheKey, triples);
+            if (this.mappings.size() > this.capacity) {
+                this.mappings.remove(this.mappings.keySet().iterator().next());
+            }
+        }
+        return triples;
+    }
+
+    /**
+     * Get the number of cached mappings.
+     * @return the number of cached mappings
+     */
+    int size() {
+        synchronized (this.mappings) {
+            return this.mappings.size();
+        }
+    }
+}
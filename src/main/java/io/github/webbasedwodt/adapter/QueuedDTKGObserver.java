@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.application.component.observer.DTKGObserver;
+import io.github.webbasedwodt.application.component.observer.DTKGObserverOverflowPolicy;
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link DTKGObserver} decorator that decouples the notifier from the decorated observer.
+ * Notifications are enqueued in a bounded queue and delivered, in order, by the provided executor.
+ * When the queue is full the configured {@link DTKGObserverOverflowPolicy} is applied.
+ */
+final class QueuedDTKGObserver implements DTKGObserver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueuedDTKGObserver.class);
+    private final DTKGObserver observer;
+    private final Executor executor;
+    private final int capacity;
+    private final DTKGObserverOverflowPolicy overflowPolicy;
+    private final Deque<DTKGDelta> pendingDeltas;
+    private boolean draining;
+    private boolean disconnected;
+
+    /**
+     * Default constructor.
+     * @param observer the observer to decorate
+     * @param executor the executor used to notify the observer
+     * @param capacity the maximum number of pending notifications
+     * @param overflowPolicy the policy to apply when the pending notifications exceed the capacity
+     */
+    QueuedDTKGObserver(
+            final DTKGObserver observer,
+            final Executor executor,
+            final int capacity,
+            final DTKGObserverOverflowPolicy overflowPolicy
+    ) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of the queue must be greater than zero.");
+        }
+        this.observer = observer;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.pendingDeltas = new ArrayDeque<>(capacity);
+    }
+
+    @Override
+    public void notifyDTKGDelta(final DTKGDelta delta) {
+        synchronized (this) {
+            if (this.disconnected) {
+                return;
+            }
+            if (this.pendingDeltas.size() < this.capacity) {
+                this.pendingDeltas.addLast(delta);
+            } else {
+                this.handleOverflow(delta);
+            }
+            if (this.draining || this.disconnected) {
+                return;
+            }
+            this.draining = true;
+        }
+        this.executor.execute(this::drain);
+    }
+
+    /**
+     * Check if the observer has been disconnected because of the {@link DTKGObserverOverflowPolicy#DISCONNECT}
+     * policy.
+     * @return true if disconnected, false otherwise
+     */
+    synchronized boolean isDisconnected() {
+        return this.disconnected;
+    }
+
+    private void handleOverflow(final DTKGDelta delta) {
+        switch (this.overflowPolicy) {
+            case CONFLATE:
+                DTKGDelta conflatedDelta = this.pendingDeltas.pollFirst();
+                while (!this.pendingDeltas.isEmpty()) {
+                    conflatedDelta = conflatedDelta.followedBy(this.pendingDeltas.pollFirst());
+                }
+                this.pendingDeltas.addLast(conflatedDelta.followedBy(delta));
+                break;
+            case DROP_OLDEST:
+                LOGGER.warn("DTKG observer {} is lagging: the oldest pending delta is dropped", this.observer);
+                this.pendingDeltas.pollFirst();
+                this.pendingDeltas.addLast(delta);
+                break;
+            case DISCONNECT:
+            default:
+                this.pendingDeltas.clear();
+                this.disconnected = true;
+                LOGGER.error(
+                    "DTKG observer {} disconnected: it exceeded {} pending notifications and it will not be notified "
+                        + "anymore",
+                    this.observer,
+                    this.capacity
+                );
+                break;
+        }
+    }
+
+    private void drain() {
+        try {
+            for (DTKGDelta delta = this.nextDelta(); delta != null; delta = this.nextDelta()) {
+                this.observer.notifyDTKGDelta(delta);
+            }
+        } catch (final RuntimeException exception) {
+            synchronized (this) {
+                this.draining = false;
+            }
+            throw exception;
+        }
+    }
+
+    private synchronized DTKGDelta nextDelta() {
+        final DTKGDelta delta = this.pendingDeltas.pollFirst();
+        if (delta == null) {
+            this.draining = false;
+        }
+        return delta;
+    }
+}
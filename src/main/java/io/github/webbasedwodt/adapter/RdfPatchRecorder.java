@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class records the triples added and removed within a DTKG transaction, in order to render them as
+ * an <a href="https://afs.github.io/rdf-delta/rdf-patch.html">RDF Patch</a>.
+ * Each operation can be attributed to the Digital Twin property it belongs to, so that the operations of each
+ * property can also be rendered separately.
+ * Operations on the same triple that cancel each other out can be dropped, so that only the net changes are rendered.
+ * It is not thread-safe: callers must guarantee mutual exclusion.
+ */
+final class RdfPatchRecorder {
+    private static final String ADD_OPERATION = "A";
+    private static final String DELETE_OPERATION = "D";
+    private final List<String> operationTypes;
+    private final List<Triple> operationTriples;
+    private final List<String> operationPropertyKeys;
+
+    /**
+     * Default constructor.
+     */
+    RdfPatchRecorder() {
+        this.operationTypes = new ArrayList<>();
+        this.operationTriples = new ArrayList<>();
+        this.operationPropertyKeys = new ArrayList<>();
+    }
+
+    /**
+     * Record the addition of a triple.
+     * @param triple the added triple
+     * @param propertyKey the key of the property the triple belongs to, null if it does not belong to a property
+     */
+    void recordAddition(final Triple triple, final String propertyKey) {
+        this.record(ADD_OPERATION, triple, propertyKey);
+    }
+
+    /**
+     * Record the removal of a triple.
+     * @param triple the removed triple
+     * @param propertyKey the key of the property the triple belongs to, null if it does not belong to a property
+     */
+    void recordDeletion(final Triple triple, final String propertyKey) {
+        this.record(DELETE_OPERATION, triple, propertyKey);
+    }
+
+    /**
+     * Check if something has been recorded.
+     * @return true if no operation has been recorded, false otherwise
+     */
+    boolean isEmpty() {
+        return this.operationTriples.isEmpty();
+    }
+
+    /**
+     * Get the number of recorded operations.
+     * @return the number of recorded operations
+     */
+    int size() {
+        return this.operationTriples.size();
+    }
+
+    /**
+     * Render the recorded operations as an RDF Patch transaction.
+     * @return the RDF Patch transaction, without headers
+     */
+    String toRdfPatchTransaction() {
+        final StringBuilder patch = new StringBuilder("TX .\n");
+        for (int i = 0; i < this.operationTriples.size(); i++) {
+            this.appendOperation(patch, i);
+        }
+        return patch.append("TC .\n").toString();
+    }
+
+    /**
+     * Render the recorded operations of each property as RDF Patch rows.
+     * @return the RDF Patch rows, without transaction boundaries, of each property with recorded operations
+     */
+    Map<String, String> toPropertyRdfPatchOperations() {
+        final Map<String, StringBuilder> propertyOperations = new LinkedHashMap<>();
+        for (int i = 0; i < this.operationTriples.size(); i++) {
+            final String propertyKey = this.operationPropertyKeys.get(i);
+            if (propertyKey != null) {
+                this.appendOperation(propertyOperations.computeIfAbsent(propertyKey, key -> new StringBuilder()), i);
+            }
+        }
+        final Map<String, String> renderedOperations = new LinkedHashMap<>();
+        propertyOperations.forEach((key, operations) -> renderedOperations.put(key, operations.toString()));
+        return renderedOperations;
+    }
+
+    /**
+     * Forget all the recorded operations.
+     */
+    void clear() {
+        this.operationTypes.clear();
+        this.operationTriples.clear();
+        this.operationPropertyKeys.clear();
+    }
+
+    /**
+     * Forget the operations recorded after the first ones.
+     * @param size the number of the first operations to keep
+     */
+    void truncate(final int size) {
+        this.operationTypes.subList(size, this.operationTypes.size()).clear();
+        this.operationTriples.subList(size, this.operationTriples.size()).clear();
+        this.operationPropertyKeys.subList(size, this.operationPropertyKeys.size()).clear();
+    }
+
+    /**
+     * Drop the operations recorded from the given one on that cancel each other out, i.e., the addition and the
+     * removal of the same triple.
+     * Each triple keeps at most its last operation, if it changes the triple with respect to the first one.
+     * @param from the index of the first operation to consider
+     */
+    void cancelOpposites(final int from) {
+        final Map<Triple, String> firstOperationTypes = new HashMap<>();
+        final Map<Triple, Integer> lastOperations = new HashMap<>();
+        for (int i = from; i < this.operationTriples.size(); i++) {
+            firstOperationTypes.putIfAbsent(this.operationTriples.get(i), this.operationTypes.get(i));
+            lastOperations.put(this.operationTriples.get(i), i);
+        }
+        if (lastOperations.size() == this.operationTriples.size() - from) {
+            return;
+        }
+        final List<String> netTypes = new ArrayList<>();
+        final List<Triple> netTriples = new ArrayList<>();
+        final List<String> netPropertyKeys = new ArrayList<>();
+        for (int i = from; i < this.operationTriples.size(); i++) {
+            final Triple triple = this.operationTriples.get(i);
+            if (lastOperations.get(triple) == i
+                    && firstOperationTypes.get(triple).equals(this.operationTypes.get(i))) {
+                netTypes.add(this.operationTypes.get(i));
+                netTriples.add(triple);
+                netPropertyKeys.add(this.operationPropertyKeys.get(i));
+            }
+        }
+        this.truncate(from);
+        this.operationTypes.addAll(netTypes);
+        this.operationTriples.addAll(netTriples);
+        this.operationPropertyKeys.addAll(netPropertyKeys);
+    }
+
+    private void record(final String operationType, final Triple triple, final String propertyKey) {
+        this.operationTypes.add(operationType);
+        this.operationTriples.add(triple);
+        this.operationPropertyKeys.add(propertyKey);
+    }
+
+    private void appendOperation(final StringBuilder patch, final int index) {
+        final Triple triple = this.operationTriples.get(index);
+        patch.append(this.operationTypes.get(index)).append(' ')
+                .append(NodeFmtLib.str(triple.getSubject())).append(' ')
+                .append(NodeFmtLib.str(triple.getPredicate())).append(' ')
+                .append(NodeFmtLib.str(triple.getObject())).append(" .\n");
+    }
+}
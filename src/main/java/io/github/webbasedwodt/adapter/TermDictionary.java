@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import org.apache.jena.graph.Node;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Dictionary of the RDF terms of the DTKGs, that encodes each term as an int identifier, so that the DTKGs store
+ * their triples as identifiers and equal terms, e.g., the URIs of a semantics shared by many Digital Twins, are
+ * stored once.
+ * An identifier is reused for another term only after a sweep has found that no owner tracked by the dictionary,
+ * e.g., an engine or an immutable version of a DTKG still reachable by a reader, refers to it. Sweeps run between
+ * writes, when the terms encoded since the last one are as many as the terms that survived it.
+ */
+final class TermDictionary {
+    /** Identifier of the absent terms. */
+    static final int NO_TERM = -1;
+    private static final int DEFAULT_MIN_SWEEP_ALLOCATIONS = 1024;
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    private static final TermDictionary SHARED = new TermDictionary();
+    private final int minSweepAllocations;
+    private final Map<Node, Integer> identifiers;
+    private final ReadWriteLock sweepLock;
+    private final Set<Owner<?>> owners;
+    private final ReferenceQueue<Object> collectedOwners;
+    private final Object allocationLock;
+    // Terms are written in chunks that are never replaced, so that a term is never lost while the chunks grow.
+    private volatile Node[][] terms;
+    private int[] freeIdentifiers;
+    private int freeIdentifierCount;
+    private int nextIdentifier;
+    private final AtomicInteger allocationsSinceSweep;
+    private volatile int termsAfterSweep;
+
+    /**
+     * Default constructor.
+     */
+    TermDictionary() {
+        this(DEFAULT_MIN_SWEEP_ALLOCATIONS);
+    }
+
+    /**
+     * Create a dictionary that sweeps the unused terms less eagerly than the default one.
+     * @param minSweepAllocations the minimum number of terms to encode between two sweeps
+     */
+    TermDictionary(final int minSweepAllocations) {
+        this.minSweepAllocations = minSweepAllocations;
+        this.identifiers = new ConcurrentHashMap<>();
+        this.sweepLock = new ReentrantReadWriteLock();
+        this.owners = ConcurrentHashMap.newKeySet();
+        this.collectedOwners = new ReferenceQueue<>();
+        this.allocationLock = new Object();
+        this.allocationsSinceSweep = new AtomicInteger();
+        this.terms = new Node[0][];
+        this.freeIdentifiers = new int[0];
+    }
+
+    /**
+     * Get the dictionary shared by all the Digital Twins hosted by the JVM.
+     * @return the shared dictionary
+     */
+    static TermDictionary shared() {
+        return SHARED;
+    }
+
+    /**
+     * Get the identifier of a term, encoding the term if absent.
+     * It must be called within {@link #write(Runnable)}, and the identifier must be reachable from a tracked owner
+     * by the end of the write, unless it is not used anymore.
+     * @param term the term
+     * @return the identifier of the term
+     */
+    int encode(final Node term) {
+        final Integer identifier = this.identifiers.get(term);
+        return identifier == null ? this.identifiers.computeIfAbsent(term, this::allocate) : identifier;
+    }
+
+    /**
+     * Get the identifier of a term, without encoding it.
+     * @param term the term
+     * @return the identifier of the term, or {@link #NO_TERM} if the term is absent
+     */
+    int lookup(final Node term) {
+        final Integer identifier = this.identifiers.get(term);
+        return identifier == null ? NO_TERM : identifier;
+    }
+
+    /**
+     * Get the term of an identifier, that must be reachable from a tracked owner.
+     * @param identifier the identifier
+     * @return the term
+     */
+    Node decode(final int identifier) {
+        return this.terms[identifier >>> CHUNK_BITS][identifier & CHUNK_MASK];
+    }
+
+    /**
+     * Get the number of terms in the dictionary, including the ones not yet swept after their last use.
+     * @return the number of terms
+     */
+    int size() {
+        synchronized (this.allocationLock) {
+            return this.nextIdentifier - this.freeIdentifierCount;
+        }
+    }
+
+    /**
+     * Run a write that encodes terms, concurrently with the writes of the other owners, but never with a sweep.
+     * @param write the write
+     */
+    void write(final Runnable write) {
+        this.sweepLock.readLock().lock();
+        try {
+            write.run();
+        } finally {
+            this.sweepLock.readLock().unlock();
+        }
+        if (this.isSweepDue()) {
+            this.sweep(false);
+        }
+    }
+
+    /**
+     * Keep the terms of an owner as long as the owner is reachable.
+     * @param owner the owner
+     * @param termIdentifiers the function that gives the identifiers of the terms of the owner to an action
+     * @param <T> the type of the owner
+     */
+    <T> void track(final T owner, final BiConsumer<? super T, IntConsumer> termIdentifiers) {
+        Reference<?> collectedOwner = this.collectedOwners.poll();
+        while (collectedOwner != null) {
+            this.owners.remove(collectedOwner);
+            collectedOwner = this.collectedOwners.poll();
+        }
+        this.owners.add(new Owner<>(owner, termIdentifiers, this.collectedOwners));
+    }
+
+    /**
+     * Sweep the terms that no reachable owner refers to, so that their identifiers can be reused.
+     */
+    void sweep() {
+        this.sweep(true);
+    }
+
+    private void sweep(final boolean forced) {
+        this.sweepLock.writeLock().lock();
+        try {
+            // Another writer may have swept in the meantime.
+            if (!forced && !this.isSweepDue()) {
+                return;
+            }
+            final BitSet usedIdentifiers = new BitSet();
+            this.owners.removeIf(owner -> !owner.forEachIdentifier(usedIdentifiers::set));
+            final int identifierCount;
+            synchronized (this.allocationLock) {
+                identifierCount = this.nextIdentifier;
+            }
+            final BitSet unusedIdentifiers = new BitSet();
+            // No term is encoded while the sweep holds the lock, so the terms are read without the allocation one.
+            for (int identifier = 0; identifier < identifierCount; identifier++) {
+                final Node term = this.decode(identifier);
+                if (term != null && !usedIdentifiers.get(identifier)) {
+                    this.identifiers.remove(term);
+                    unusedIdentifiers.set(identifier);
+                }
+            }
+            synchronized (this.allocationLock) {
+                unusedIdentifiers.stream().forEach(identifier -> {
+                    this.terms[identifier >>> CHUNK_BITS][identifier & CHUNK_MASK] = null;
+                    if (this.freeIdentifierCount == this.freeIdentifiers.length) {
+                        this.freeIdentifiers = Arrays.copyOf(this.freeIdentifiers, this.nextIdentifier);
+                    }
+                    this.freeIdentifiers[this.freeIdentifierCount++] = identifier;
+                });
+                this.allocationsSinceSweep.set(0);
+                this.termsAfterSweep = this.nextIdentifier - this.freeIdentifierCount;
+            }
+        } finally {
+            this.sweepLock.writeLock().unlock();
+        }
+    }
+
+    private boolean isSweepDue() {
+        return this.allocationsSinceSweep.get() >= Math.max(this.minSweepAllocations, this.termsAfterSweep);
+    }
+
+    private Integer allocate(final Node term) {
+        synchronized (this.allocationLock) {
+            final int identifier = this.freeIdentifierCount > 0
+                ? this.freeIdentifiers[--this.freeIdentifierCount]
+                : this.nextIdentifier++;
+            final int chunkIndex = identifier >>> CHUNK_BITS;
+            if (chunkIndex == this.terms.length) {
+                final Node[][] newTerms = Arrays.copyOf(this.terms, chunkIndex + 1);
+                newTerms[chunkIndex] = new Node[CHUNK_MASK + 1];
+                this.terms = newTerms;
+            }
+            this.terms[chunkIndex][identifier & CHUNK_MASK] = term;
+            this.allocationsSinceSweep.incrementAndGet();
+            return identifier;
+        }
+    }
+
+    /**
+     * Owner of terms, held weakly, with the function that gives the identifiers of its terms.
+     * @param <T> the type of the owner
+     */
+    private static final class Owner<T> extends WeakReference<T> {
+        private final BiConsumer<? super T, IntConsumer> identifiers;
+
+        Owner(
+                final T owner,
+                final BiConsumer<? super T, IntConsumer> identifiers,
+                final ReferenceQueue<Object> collectedOwners
+        ) {
+            super(owner, collectedOwners);
+            this.identifiers = identifiers;
+        }
+
+        // False if the owner has been collected.
+        boolean forEachIdentifier(final IntConsumer action) {
+            final T owner = this.get();
+            if (owner == null) {
+                return false;
+            }
+            this.identifiers.accept(owner, action);
+            return true;
+        }
+    }
+}
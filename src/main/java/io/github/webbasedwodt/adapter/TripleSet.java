@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.shared.PrefixMapping;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of the triples of a DTKG, stored as specified by a {@link DTKGStorage}.
+ * A changed set shares the unchanged triples with the set it derives from.
+ */
+interface TripleSet {
+    /**
+     * Check if a triple is present.
+     * @param triple the triple
+     * @return true if the triple is present, false otherwise
+     */
+    boolean contains(Triple triple);
+
+    /**
+     * Obtain the set with an additional triple.
+     * @param triple the triple
+     * @return the new set, or this set if the triple is already present
+     */
+    TripleSet plus(Triple triple);
+
+    /**
+     * Obtain the set without a triple.
+     * @param triple the triple
+     * @return the new set, or this set if the triple is not present
+     */
+    TripleSet minus(Triple triple);
+
+    /**
+     * Get the number of triples.
+     * @return the number of triples
+     */
+    int size();
+
+    /**
+     * Iterate the triples, grouped by subject.
+     * @return the iterator of the triples
+     */
+    Iterator<Triple> iterator();
+
+    /**
+     * Iterate the triples that match a pattern, whose non-concrete nodes match any node.
+     * @param triplePattern the pattern
+     * @return the iterator of the matching triples
+     */
+    Iterator<Triple> find(Triple triplePattern);
+
+    /**
+     * Obtain an immutable list of triples, e.g., the ones of a property, stored as the triples of the set.
+     * @param triples the triples
+     * @return the list
+     */
+    List<Triple> toList(Collection<Triple> triples);
+
+    /**
+     * Perform an action for the identifier of each term of the triples, if the set stores them as identifiers.
+     * @param action the action
+     */
+    void forEachTermIdentifier(IntConsumer action);
+
+    /**
+     * Perform an action for the identifier of each term of a list obtained from {@link #toList(Collection)}, if the
+     * set stores the triples as identifiers.
+     * @param triples the list
+     * @param action the action
+     */
+    void forEachTermIdentifier(List<Triple> triples, IntConsumer action);
+
+    /**
+     * Write the triples, without a Jena writer, if the set supports the format.
+     * @param format the format
+     * @param prefixes the prefixes that abbreviate the URIs, if the format supports them
+     * @param output the output
+     * @return true if the triples have been written, false if the format is not supported
+     * @throws IOException if the output cannot be written
+     */
+    boolean write(DTKGFormat format, PrefixMapping prefixes, Appendable output) throws IOException;
+}
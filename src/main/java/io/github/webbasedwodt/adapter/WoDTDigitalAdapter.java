@@ -18,8 +18,10 @@ package io.github.webbasedwodt.adapter;
 
 import io.github.webbasedwodt.application.component.DTDManager;
 import io.github.webbasedwodt.application.component.DTKGEngine;
+import io.github.webbasedwodt.application.component.DTKGUpdateBatch;
 import io.github.webbasedwodt.application.component.PlatformManagementInterface;
 import io.github.webbasedwodt.application.component.WoDTWebServer;
+import io.github.webbasedwodt.model.dtkg.DTKGSubscriptionStatistics;
 import it.wldt.adapter.digital.DigitalAdapter;
 import it.wldt.core.state.DigitalTwinState;
 import it.wldt.core.state.DigitalTwinStateChange;
@@ -36,6 +38,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class represents the WLDT Framework Digital Adapter that allows to implement the WoDT Digital Twin layer
@@ -46,6 +55,10 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
     private final DTDManager dtdManager;
     private final WoDTWebServer woDTWebServer;
     private final PlatformManagementInterface platformManagementInterface;
+    private final ExecutorService dtkgObserverExecutor;
+    private final ScheduledExecutorService dtkgCommitExecutor;
+    private final Optional<ForkJoinPool> dtkgMappingPool;
+    private final CoalescingCommitScheduler dtkgCommitScheduler;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WoDTDigitalAdapter.class);
     /**
@@ -57,9 +70,40 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
         super(digitalAdapterId, configuration);
         this.platformManagementInterface = new BasePlatformManagementInterface(
                 this.getConfiguration().getDigitalTwinUri());
-        this.dtkgEngine = new JenaDTKGEngine(
-                this.getConfiguration().getDigitalTwinUri(),
-                this.getConfiguration().getDigitalTwinSemantics());
+        this.dtkgObserverExecutor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "wodt-dtkg-observers");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dtkgMappingPool = this.getConfiguration().getDTKGMappingParallelism() > 1
+                ? Optional.of(new ForkJoinPool(this.getConfiguration().getDTKGMappingParallelism()))
+                : Optional.empty();
+        final JenaDTKGEngine.Builder dtkgEngineBuilder = JenaDTKGEngine.builder(
+                        this.getConfiguration().getDigitalTwinUri(),
+                        this.getConfiguration().getDigitalTwinSemantics())
+                .withObserverExecutor(this.dtkgObserverExecutor)
+                .withObserverQueue(
+                        this.getConfiguration().getDTKGObserverQueueCapacity(),
+                        this.getConfiguration().getDTKGObserverOverflowPolicy())
+                .withDeltaLog(this.getConfiguration().getDTKGDeltaLogCapacity())
+                .withMappingExecutor(this.dtkgMappingPool.<Executor>map(pool -> pool).orElse(Runnable::run))
+                .withMappingCache(new PropertyMappingCache(
+                        this.getConfiguration().getDTKGMappingCachePropertyKeys(),
+                        this.getConfiguration().getDTKGMappingCacheCapacity()));
+        if (this.getConfiguration().getDTKGStorage() == DTKGStorage.DICTIONARY_ENCODED) {
+            dtkgEngineBuilder.withTermDictionary(TermDictionary.shared());
+        }
+        this.dtkgEngine = dtkgEngineBuilder.build();
+        this.dtkgCommitExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "wodt-dtkg-commits");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dtkgCommitScheduler = new CoalescingCommitScheduler(
+                this.dtkgEngine::commitUpdateTransaction,
+                this.getConfiguration().getDTKGPublishInterval(),
+                (commit, delay) -> this.dtkgCommitExecutor.schedule(commit, delay, TimeUnit.NANOSECONDS),
+                System::nanoTime);
         this.dtdManager = new WoTDTDManager(
                 this.getConfiguration().getDigitalTwinUri(),
                 this.getConfiguration().getDtVersion(),
@@ -80,10 +124,22 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
                         return false;
                     }
                 },
-                this.platformManagementInterface
+                this.platformManagementInterface,
+                this.getConfiguration().getDTKGSubscriberMaxPendingBytes(),
+                this.getConfiguration().getDTKGSubscriberMaxPendingFrames(),
+                this.getConfiguration().getDTKGSubscriberLagTimeout()
         );
     }
 
+    /**
+     * Get the statistics of the clients subscribed to the DTKG updates through the WebSocket,
+     * e.g., to monitor how many of them are lagging.
+     * @return the current statistics
+     */
+    public DTKGSubscriptionStatistics getDTKGSubscriptionStatistics() {
+        return this.woDTWebServer.getDTKGSubscriptionStatistics();
+    }
+
     @Override
     protected void onEventNotificationReceived(
             final DigitalTwinStateEventNotification<?> digitalTwinStateEventNotification) { }
@@ -96,8 +152,7 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
     ) {
         if (digitalTwinStateChanges != null && !digitalTwinStateChanges.isEmpty()) {
             this.logMessage("New State Update Received");
-            //TODO this for sends multiple updates for a single state change
-            // implement a sort of transaction for state updates would be best
+            final DTKGUpdateBatch dtkgUpdateBatch = this.dtkgEngine.beginUpdateBatch();
             for (final DigitalTwinStateChange change : digitalTwinStateChanges) {
                 final DigitalTwinStateChange.Operation operationPerformed = change.getOperation();
                 final DigitalTwinStateChange.ResourceType changeResourceType = change.getResourceType();
@@ -110,6 +165,7 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
                             if (previousDigitalTwinState != null) {
                                 try {
                                     this.handlePropertyUpdate(
+                                            dtkgUpdateBatch,
                                             (DigitalTwinStateProperty<?>) changedResource,
                                             previousDigitalTwinState.getProperty(
                                                     ((DigitalTwinStateProperty<?>) changedResource)
@@ -117,12 +173,14 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
                                                     .orElse(null),
                                             operationPerformed);
                                 } catch (WldtDigitalTwinStatePropertyException e) {
-                                    this.handlePropertyUpdate((DigitalTwinStateProperty<?>) changedResource,
+                                    this.handlePropertyUpdate(dtkgUpdateBatch,
+                                            (DigitalTwinStateProperty<?>) changedResource,
                                             null,
                                             operationPerformed);
                                 }
                             } else {
-                                this.handlePropertyUpdate((DigitalTwinStateProperty<?>) changedResource,
+                                this.handlePropertyUpdate(dtkgUpdateBatch,
+                                        (DigitalTwinStateProperty<?>) changedResource,
                                         null,
                                         operationPerformed);
                             }
@@ -137,12 +195,17 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
                     case RELATIONSHIP_INSTANCE:
                         if (changedResource instanceof DigitalTwinStateRelationshipInstance<?>) {
                             this.handleRelationshipInstanceUpdate(
-                                    (DigitalTwinStateRelationshipInstance<?>) changedResource, operationPerformed);
+                                    dtkgUpdateBatch,
+                                    (DigitalTwinStateRelationshipInstance<?>) changedResource,
+                                    operationPerformed);
                         }
                         break;
                     case ACTION:
                         if (changedResource instanceof DigitalTwinStateAction) {
-                            this.handleActionUpdate((DigitalTwinStateAction) changedResource, operationPerformed);
+                            this.handleActionUpdate(
+                                    dtkgUpdateBatch,
+                                    (DigitalTwinStateAction) changedResource,
+                                    operationPerformed);
                         }
                         break;
                     case EVENT:
@@ -152,12 +215,14 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
                         break;
                 }
             }
-            this.dtkgEngine.commitUpdateTransaction();
+            dtkgUpdateBatch.applySkippingFailedChanges(e -> this.logMessage("Change not applied to the DTKG: " + e));
+            this.dtkgCommitScheduler.requestCommit();
             this.logMessage("New state update sent");
         }
     }
 
     private void handlePropertyUpdate(
+            final DTKGUpdateBatch dtkgUpdateBatch,
             final DigitalTwinStateProperty<?> updatedProperty,
             final DigitalTwinStateProperty<?> oldProperty,
             final DigitalTwinStateChange.Operation operationPerformed
@@ -167,15 +232,15 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
                 this.dtdManager.addProperty(updatedProperty);
                 break;
             case OPERATION_REMOVE:
-                this.dtkgEngine.removeProperty(updatedProperty);
+                dtkgUpdateBatch.removeProperty(updatedProperty);
                 this.dtdManager.removeProperty(updatedProperty);
                 break;
             case OPERATION_UPDATE:
             case OPERATION_UPDATE_VALUE:
                 if (oldProperty == null) {
-                    this.dtkgEngine.addDigitalTwinProperty(updatedProperty);
+                    dtkgUpdateBatch.addDigitalTwinProperty(updatedProperty);
                 } else {
-                    this.dtkgEngine.updateDigitalTwinProperty(updatedProperty, oldProperty);
+                    dtkgUpdateBatch.updateDigitalTwinProperty(updatedProperty, oldProperty);
                 }
                 break;
             default:
@@ -200,15 +265,16 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
     }
 
     private void handleRelationshipInstanceUpdate(
+            final DTKGUpdateBatch dtkgUpdateBatch,
             final DigitalTwinStateRelationshipInstance<?> updatedRelationshipInstance,
             final DigitalTwinStateChange.Operation operationPerformed
     ) {
         switch (operationPerformed) {
             case OPERATION_ADD:
-                this.dtkgEngine.addRelationship(updatedRelationshipInstance);
+                dtkgUpdateBatch.addRelationship(updatedRelationshipInstance);
                 break;
             case OPERATION_REMOVE:
-                this.dtkgEngine.removeRelationship(updatedRelationshipInstance);
+                dtkgUpdateBatch.removeRelationship(updatedRelationshipInstance);
                 break;
             default:
                 break;
@@ -216,19 +282,20 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
     }
 
     private void handleActionUpdate(
+            final DTKGUpdateBatch dtkgUpdateBatch,
             final DigitalTwinStateAction updatedAction,
             final DigitalTwinStateChange.Operation operationPerformed
     ) {
         switch (operationPerformed) {
             case OPERATION_ADD: // adds and enables the action
                 this.dtdManager.addAction(updatedAction);
-                this.dtkgEngine.addAction(updatedAction);
+                dtkgUpdateBatch.addAction(updatedAction);
                 break;
             case OPERATION_REMOVE: // only disables the action
-                this.dtkgEngine.removeAction(updatedAction);
+                dtkgUpdateBatch.removeAction(updatedAction);
                 break;
             case OPERATION_UPDATE: // enables the action
-                this.dtkgEngine.addAction(updatedAction);
+                dtkgUpdateBatch.addAction(updatedAction);
                 break;
             default:
                 break;
@@ -239,20 +306,26 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
     public void onAdapterStart() {
         this.woDTWebServer.start();
         this.getConfiguration().getPlatformToRegister().forEach(platform ->
-                this.platformManagementInterface.registerToPlatform(platform, this.dtdManager.getDTD().toJsonString()));
+                this.platformManagementInterface.registerToPlatform(platform,
+                        this.dtdManager.getCurrentSnapshot().getDigitalTwinDescription()));
     }
 
     @Override
     public void onAdapterStop() {
         this.platformManagementInterface.signalDigitalTwinDeletion();
+        this.dtkgCommitExecutor.shutdownNow();
+        this.dtkgCommitScheduler.flush();
+        this.dtkgObserverExecutor.shutdown();
+        this.dtkgMappingPool.ifPresent(ForkJoinPool::shutdown);
     }
 
     @Override
     public void onDigitalTwinSync(final DigitalTwinState digitalTwinState) {
         try {
+            final DTKGUpdateBatch dtkgUpdateBatch = this.dtkgEngine.beginUpdateBatch();
             digitalTwinState.getPropertyList().ifPresent(properties ->
                     properties.forEach(property -> {
-                        this.dtkgEngine.addDigitalTwinProperty(property);
+                        dtkgUpdateBatch.addDigitalTwinProperty(property);
                         this.dtdManager.addProperty(property);
                     }));
             digitalTwinState.getRelationshipList().ifPresent(relationships ->
@@ -260,9 +333,10 @@ public final class WoDTDigitalAdapter extends DigitalAdapter<WoDTDigitalAdapterC
             digitalTwinState.getActionList().ifPresent(actions ->
                     actions.forEach(action -> {
                         this.dtdManager.addAction(action);
-                        this.dtkgEngine.addAction(action);
+                        dtkgUpdateBatch.addAction(action);
                     }));
-            this.dtkgEngine.commitUpdateTransaction();
+            dtkgUpdateBatch.applySkippingFailedChanges(e -> this.logMessage("Error during loading: " + e));
+            this.dtkgCommitScheduler.flush();
         } catch (WldtDigitalTwinStatePropertyException | WldtDigitalTwinStateActionException e) {
             this.logMessage("Error during loading: " + e);
         }
@@ -16,23 +16,49 @@
 
 package io.github.webbasedwodt.adapter;
 
+import io.github.webbasedwodt.application.component.observer.DTKGObserverOverflowPolicy;
 import io.github.webbasedwodt.model.dtd.DTVersion;
 import io.github.webbasedwodt.model.ontology.DigitalTwinSemantics;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Configuration for the {@link WoDTDigitalAdapter}.
+ * Optional settings have a default value and can be changed through the {@code with} methods,
+ * which return a new configuration.
  */
 public final class WoDTDigitalAdapterConfiguration {
+    /** Default high-water mark for the bytes not yet sent to a DTKG WebSocket client. */
+    static final long DEFAULT_DTKG_SUBSCRIBER_MAX_PENDING_BYTES = 1_048_576;
+    /** Default high-water mark for the frames not yet sent to a DTKG WebSocket client. */
+    static final int DEFAULT_DTKG_SUBSCRIBER_MAX_PENDING_FRAMES = 64;
+    /** Default maximum time a DTKG WebSocket client can lag before being evicted. */
+    static final Duration DEFAULT_DTKG_SUBSCRIBER_LAG_TIMEOUT = Duration.ofSeconds(30);
+    /** Default maximum number of pending DTKG notifications of each observer. */
+    static final int DEFAULT_DTKG_OBSERVER_QUEUE_CAPACITY = 64;
+    /** Default number of the most recent DTKG deltas that are retained. */
+    static final int DEFAULT_DTKG_DELTA_LOG_CAPACITY = 256;
+
     private final DigitalTwinSemantics digitalTwinSemantics;
     private final URI digitalTwinUri;
     private final DTVersion dtVersion;
     private final int portNumber;
     private final String physicalAssetId;
     private final Set<URI> platformToRegister;
+    private int dtkgObserverQueueCapacity;
+    private DTKGObserverOverflowPolicy dtkgObserverOverflowPolicy;
+    private long dtkgSubscriberMaxPendingBytes;
+    private int dtkgSubscriberMaxPendingFrames;
+    private Duration dtkgSubscriberLagTimeout;
+    private int dtkgDeltaLogCapacity;
+    private Duration dtkgPublishInterval;
+    private int dtkgMappingParallelism;
+    private Set<String> dtkgMappingCachePropertyKeys;
+    private int dtkgMappingCacheCapacity;
+    private DTKGStorage dtkgStorage;
 
     /**
      * Default constructor.
@@ -57,6 +83,171 @@ public final class WoDTDigitalAdapterConfiguration {
         this.portNumber = portNumber;
         this.physicalAssetId = physicalAssetId;
         this.platformToRegister = new HashSet<>(platformToRegister);
+        this.dtkgObserverQueueCapacity = DEFAULT_DTKG_OBSERVER_QUEUE_CAPACITY;
+        this.dtkgObserverOverflowPolicy = DTKGObserverOverflowPolicy.CONFLATE;
+        this.dtkgSubscriberMaxPendingBytes = DEFAULT_DTKG_SUBSCRIBER_MAX_PENDING_BYTES;
+        this.dtkgSubscriberMaxPendingFrames = DEFAULT_DTKG_SUBSCRIBER_MAX_PENDING_FRAMES;
+        this.dtkgSubscriberLagTimeout = DEFAULT_DTKG_SUBSCRIBER_LAG_TIMEOUT;
+        this.dtkgDeltaLogCapacity = DEFAULT_DTKG_DELTA_LOG_CAPACITY;
+        this.dtkgPublishInterval = Duration.ZERO;
+        this.dtkgMappingParallelism = 1;
+        this.dtkgMappingCachePropertyKeys = Set.of();
+        this.dtkgStorage = DTKGStorage.JENA;
+    }
+
+    private WoDTDigitalAdapterConfiguration(final WoDTDigitalAdapterConfiguration configuration) {
+        this(
+            configuration.digitalTwinUri,
+            configuration.dtVersion,
+            configuration.digitalTwinSemantics,
+            configuration.portNumber,
+            configuration.physicalAssetId,
+            configuration.platformToRegister
+        );
+        this.dtkgObserverQueueCapacity = configuration.dtkgObserverQueueCapacity;
+        this.dtkgObserverOverflowPolicy = configuration.dtkgObserverOverflowPolicy;
+        this.dtkgSubscriberMaxPendingBytes = configuration.dtkgSubscriberMaxPendingBytes;
+        this.dtkgSubscriberMaxPendingFrames = configuration.dtkgSubscriberMaxPendingFrames;
+        this.dtkgSubscriberLagTimeout = configuration.dtkgSubscriberLagTimeout;
+        this.dtkgDeltaLogCapacity = configuration.dtkgDeltaLogCapacity;
+        this.dtkgPublishInterval = configuration.dtkgPublishInterval;
+        this.dtkgMappingParallelism = configuration.dtkgMappingParallelism;
+        this.dtkgMappingCachePropertyKeys = configuration.dtkgMappingCachePropertyKeys;
+        this.dtkgMappingCacheCapacity = configuration.dtkgMappingCacheCapacity;
+        this.dtkgStorage = configuration.dtkgStorage;
+    }
+
+    /**
+     * Obtain a copy of this configuration that notifies DTKG observers, e.g., WebSocket clients, through bounded
+     * queues with the specified capacity and overflow policy.
+     * By default, each queue holds 64 notifications and pending
+     * notifications are conflated.
+     * @param capacity the maximum number of pending notifications for each observer
+     * @param overflowPolicy the policy to apply when an observer exceeds its pending notifications
+     * @return the new configuration
+     */
+    public WoDTDigitalAdapterConfiguration withDTKGObserverQueue(
+            final int capacity,
+            final DTKGObserverOverflowPolicy overflowPolicy
+    ) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of the queue must be greater than zero.");
+        }
+        final WoDTDigitalAdapterConfiguration configuration = new WoDTDigitalAdapterConfiguration(this);
+        configuration.dtkgObserverQueueCapacity = capacity;
+        configuration.dtkgObserverOverflowPolicy = overflowPolicy;
+        return configuration;
+    }
+
+    /**
+     * Obtain a copy of this configuration with the specified limits for the clients subscribed to the DTKG through
+     * the WebSocket.
+     * A client whose frames not yet sent exceed one of the high-water marks is considered lagging: its updates are
+     * conflated until it catches up, and it is evicted if it keeps lagging for longer than the lag timeout.
+     * By default, the high-water marks are 1 MiB and 64 frames and the lag timeout is 30 seconds.
+     * @param maxPendingBytes the high-water mark for the bytes not yet sent to a client
+     * @param maxPendingFrames the high-water mark for the frames not yet sent to a client
+     * @param lagTimeout the maximum time a client can lag before being evicted
+     * @return the new configuration
+     */
+    public WoDTDigitalAdapterConfiguration withDTKGSubscriberLimits(
+            final long maxPendingBytes,
+            final int maxPendingFrames,
+            final Duration lagTimeout
+    ) {
+        if (maxPendingBytes < 1 || maxPendingFrames < 1 || lagTimeout.isNegative() || lagTimeout.isZero()) {
+            throw new IllegalArgumentException("The limits of the subscribers must be positive.");
+        }
+        final WoDTDigitalAdapterConfiguration configuration = new WoDTDigitalAdapterConfiguration(this);
+        configuration.dtkgSubscriberMaxPendingBytes = maxPendingBytes;
+        configuration.dtkgSubscriberMaxPendingFrames = maxPendingFrames;
+        configuration.dtkgSubscriberLagTimeout = lagTimeout;
+        return configuration;
+    }
+
+    /**
+     * Obtain a copy of this configuration that retains the specified number of the most recent DTKG deltas.
+     * WebSocket clients that reconnect with the last version they received obtain only the retained deltas they
+     * missed, and the whole DTKG only when some of them are no longer retained.
+     * By default, 256 deltas are retained.
+     * @param capacity the number of deltas to retain, zero to always send the whole DTKG
+     * @return the new configuration
+     */
+    public WoDTDigitalAdapterConfiguration withDTKGDeltaLog(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity of the log cannot be negative.");
+        }
+        final WoDTDigitalAdapterConfiguration configuration = new WoDTDigitalAdapterConfiguration(this);
+        configuration.dtkgDeltaLogCapacity = capacity;
+        return configuration;
+    }
+
+    /**
+     * Obtain a copy of this configuration that publishes the DTKG updates at most once per interval, i.e.,
+     * with a maximum publish rate of one update per interval.
+     * The state updates received within the interval are coalesced into a single DTKG update, while the DTKG
+     * served to HTTP clients is always up to date.
+     * By default, the interval is zero and every state update is published.
+     * @param minInterval the minimum interval between two published DTKG updates
+     * @return the new configuration
+     */
+    public WoDTDigitalAdapterConfiguration withDTKGPublishInterval(final Duration minInterval) {
+        if (minInterval.isNegative()) {
+            throw new IllegalArgumentException("The publish interval cannot be negative.");
+        }
+        final WoDTDigitalAdapterConfiguration configuration = new WoDTDigitalAdapterConfiguration(this);
+        configuration.dtkgPublishInterval = minInterval;
+        return configuration;
+    }
+
+    /**
+     * Obtain a copy of this configuration that maps the changes of a state update, or of the initial
+     * synchronization, in parallel, with the specified parallelism, before applying them all at once.
+     * This pays off for Digital Twins with many properties whose semantics is expensive to map, and it requires
+     * the {@link DigitalTwinSemantics} to be thread-safe.
+     * By default, the parallelism is one and changes are mapped sequentially.
+     * @param parallelism the maximum number of changes mapped in parallel
+     * @return the new configuration
+     */
+    public WoDTDigitalAdapterConfiguration withDTKGMappingParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The mapping parallelism must be greater than zero.");
+        }
+        final WoDTDigitalAdapterConfiguration configuration = new WoDTDigitalAdapterConfiguration(this);
+        configuration.dtkgMappingParallelism = parallelism;
+        return configuration;
+    }
+
+    /**
+     * Obtain a copy of this configuration that caches the mappings of the values of the specified properties, so that
+     * a value already seen is not mapped again by the {@link DigitalTwinSemantics}.
+     * The cache is bounded and it evicts the least recently used mappings: it pays off for properties with few
+     * distinct immutable values, e.g., booleans, enums or quantized values, whose mapping depends only on the value.
+     * By default, no mapping is cached.
+     * @param propertyKeys the keys of the properties whose mappings are cached
+     * @param capacity the maximum number of cached mappings
+     * @return the new configuration
+     */
+    public WoDTDigitalAdapterConfiguration withDTKGMappingCache(final Set<String> propertyKeys, final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of the cache must be greater than zero.");
+        }
+        final WoDTDigitalAdapterConfiguration configuration = new WoDTDigitalAdapterConfiguration(this);
+        configuration.dtkgMappingCachePropertyKeys = Set.copyOf(propertyKeys);
+        configuration.dtkgMappingCacheCapacity = capacity;
+        return configuration;
+    }
+
+    /**
+     * Obtain a copy of this configuration that stores the DTKG in the specified storage.
+     * By default, the DTKG is stored as {@link DTKGStorage#JENA} triples.
+     * @param storage the storage of the DTKG
+     * @return the new configuration
+     */
+    public WoDTDigitalAdapterConfiguration withDTKGStorage(final DTKGStorage storage) {
+        final WoDTDigitalAdapterConfiguration configuration = new WoDTDigitalAdapterConfiguration(this);
+        configuration.dtkgStorage = storage;
+        return configuration;
     }
 
     /**
@@ -106,4 +297,92 @@ public final class WoDTDigitalAdapterConfiguration {
     public Set<URI> getPlatformToRegister() {
         return new HashSet<>(this.platformToRegister);
     }
+
+    /**
+     * Obtain the maximum number of pending DTKG notifications for each observer.
+     * @return the capacity of the queue
+     */
+    public int getDTKGObserverQueueCapacity() {
+        return this.dtkgObserverQueueCapacity;
+    }
+
+    /**
+     * Obtain the policy applied when an observer exceeds its pending DTKG notifications.
+     * @return the overflow policy
+     */
+    public DTKGObserverOverflowPolicy getDTKGObserverOverflowPolicy() {
+        return this.dtkgObserverOverflowPolicy;
+    }
+
+    /**
+     * Obtain the high-water mark for the bytes not yet sent to a client subscribed to the DTKG.
+     * @return the maximum number of pending bytes
+     */
+    public long getDTKGSubscriberMaxPendingBytes() {
+        return this.dtkgSubscriberMaxPendingBytes;
+    }
+
+    /**
+     * Obtain the high-water mark for the frames not yet sent to a client subscribed to the DTKG.
+     * @return the maximum number of pending frames
+     */
+    public int getDTKGSubscriberMaxPendingFrames() {
+        return this.dtkgSubscriberMaxPendingFrames;
+    }
+
+    /**
+     * Obtain the maximum time a client subscribed to the DTKG can lag before being evicted.
+     * @return the lag timeout
+     */
+    public Duration getDTKGSubscriberLagTimeout() {
+        return this.dtkgSubscriberLagTimeout;
+    }
+
+    /**
+     * Obtain the number of the most recent DTKG deltas to retain.
+     * @return the capacity of the delta log
+     */
+    public int getDTKGDeltaLogCapacity() {
+        return this.dtkgDeltaLogCapacity;
+    }
+
+    /**
+     * Obtain the minimum interval between two published DTKG updates.
+     * @return the publish interval
+     */
+    public Duration getDTKGPublishInterval() {
+        return this.dtkgPublishInterval;
+    }
+
+    /**
+     * Obtain the maximum number of changes mapped in parallel.
+     * @return the mapping parallelism
+     */
+    public int getDTKGMappingParallelism() {
+        return this.dtkgMappingParallelism;
+    }
+
+    /**
+     * Obtain the keys of the properties whose mappings are cached.
+     * @return the property keys
+     */
+    public Set<String> getDTKGMappingCachePropertyKeys() {
+        return this.dtkgMappingCachePropertyKeys;
+    }
+
+    /**
+     * Obtain the maximum number of cached property mappings.
+     * @return the capacity of the mapping cache, zero if no mapping is cached
+     */
+    public int getDTKGMappingCacheCapacity() {
+        return this.dtkgMappingCacheCapacity;
+    }
+
+    /**
+     * Obtain the storage of the DTKG.
+     * @return the storage
+     */
+    public DTKGStorage getDTKGStorage() {
+        return this.dtkgStorage;
+    }
 }
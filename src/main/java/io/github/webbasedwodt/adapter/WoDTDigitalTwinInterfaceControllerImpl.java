@@ -18,28 +18,98 @@ package io.github.webbasedwodt.adapter;
 
 import io.github.webbasedwodt.application.component.DTDManagerReader;
 import io.github.webbasedwodt.application.component.DTKGEngineReader;
+import io.github.webbasedwodt.application.component.DTKGStreamTarget;
 import io.github.webbasedwodt.application.component.WoDTDigitalTwinInterfaceController;
+import io.github.webbasedwodt.model.dtd.DTDSnapshot;
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+import io.github.webbasedwodt.model.dtkg.DTKGFilter;
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import io.github.webbasedwodt.model.dtkg.DTKGSnapshot;
+import io.github.webbasedwodt.model.dtkg.DTKGSubscriptionStatistics;
 import io.github.webbasedwodt.model.ontology.WoDTVocabulary;
+import io.github.webbasedwodt.utils.ContentCoding;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 import io.javalin.http.Header;
 import io.javalin.http.HttpStatus;
 import io.javalin.websocket.WsConfig;
 import io.javalin.websocket.WsContext;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 
-import java.util.Collections;
-import java.util.HashSet;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
 
 /**
  * Implementation of the controller for the WoDT Digital Twins Interface component of the Abstract Architecture.
+ * WebSocket clients receive the full DTKG, in Turtle, when they connect and then only the RDF Patch of each
+ * committed update. Each message carries the version of the DTKG it leads to: the RDF Patch in its header, the
+ * Turtle in a leading comment. Clients that reconnect with {@code ?since=<version>} receive only the deltas they
+ * missed, while they are still retained, instead of the full DTKG.
+ * Clients can subscribe only to some properties, with {@code ?property=<key>} or {@code ?domainTag=<uri>}: they
+ * receive only the triples of the matching properties, and only when they change.
+ * The DTKG is served in the {@link DTKGFormat} negotiated through the {@code Accept} header, Turtle by default,
+ * and it is streamed to the response, so large DTKGs are sent with chunked transfer encoding without being
+ * materialized.
+ * The DTKG and the DTD are compressed with the {@link ContentCoding} negotiated through the {@code Accept-Encoding}
+ * header: the compressed representation of a version is computed once, next to the uncompressed one, and served to
+ * every client, while large streamed DTKGs are compressed on the fly.
+ * WebSocket clients can receive the full DTKG in N-Triples, instead of Turtle, with {@code ?format=n-triples}.
+ * Messages are sent with non-blocking writes, so a slow client never delays the others, and the open sessions are
+ * kept in a lock-free registry.
+ * Clients that do not keep up with the updates are handled as described in {@link DTKGWebSocketSubscriber}.
+ * If some deltas never reach the controller, e.g., because of the {@link
+ * io.github.webbasedwodt.application.component.observer.DTKGObserverOverflowPolicy#DROP_OLDEST} policy, the clients
+ * are sent the current DTKG again, as when they connect, since the following RDF Patches cannot be applied.
+ * The DTKG and the DTD are served with strong ETags derived from their versions, so that conditional requests
+ * of unchanged resources are answered with 304 Not Modified without serializing anything.
  */
 final class WoDTDigitalTwinInterfaceControllerImpl implements WoDTDigitalTwinInterfaceController {
+    private static final String ANY_ENTITY_TAG = "*";
+    private static final String WEAK_ENTITY_TAG_PREFIX = "W/";
+    private static final String DTKG_ENTITY_TAG = "dtkg";
+    private static final String DTD_ENTITY_TAG = "dtd";
+    private static final int POLICY_VIOLATION_CLOSE_STATUS = 1008;
+    private static final String SINCE_QUERY_PARAMETER = "since";
+    private static final String PROPERTY_QUERY_PARAMETER = "property";
+    private static final String DOMAIN_TAG_QUERY_PARAMETER = "domainTag";
+    private static final String FORMAT_QUERY_PARAMETER = "format";
+    private static final Set<String> TURTLE_MEDIA_RANGES = Set.of("*/*", "text/*");
+    private static final String QUALITY_PARAMETER = "q=";
+    private static final String ANY_CODING = "*";
+    private static final int QUALITY_SCALE = 1000;
+    private static final long UNKNOWN_VERSION = -1;
+    // Formats that can carry the version of the DTKG in a leading comment.
+    private static final Set<DTKGFormat> WEB_SOCKET_FORMATS = EnumSet.of(DTKGFormat.TURTLE, DTKGFormat.N_TRIPLES);
     private final DTKGEngineReader dtkgEngine;
     private final DTDManagerReader dtdManager;
     private final BiFunction<String, String, Boolean> actionHandler;
-    private final Set<WsContext> webSockets;
+    private final DTKGSubscriptionRegistry<WsContext> webSockets;
+    private final String entityTagPrefix;
+    private final long subscriberMaxPendingBytes;
+    private final int subscriberMaxPendingFrames;
+    private final Duration subscriberLagTimeout;
+    private final AtomicLong lastDeltaVersion;
 
     /**
      * Default constructor.
@@ -51,11 +121,43 @@ final class WoDTDigitalTwinInterfaceControllerImpl implements WoDTDigitalTwinInt
             final DTKGEngineReader dtkgEngine,
             final DTDManagerReader dtdManager,
             final BiFunction<String, String, Boolean> actionHandler
+    ) {
+        this(
+            dtkgEngine,
+            dtdManager,
+            actionHandler,
+            WoDTDigitalAdapterConfiguration.DEFAULT_DTKG_SUBSCRIBER_MAX_PENDING_BYTES,
+            WoDTDigitalAdapterConfiguration.DEFAULT_DTKG_SUBSCRIBER_MAX_PENDING_FRAMES,
+            WoDTDigitalAdapterConfiguration.DEFAULT_DTKG_SUBSCRIBER_LAG_TIMEOUT
+        );
+    }
+
+    /**
+     * Constructor that allows to configure the limits of the WebSocket clients.
+     * @param dtkgEngine the DTKG Engine
+     * @param dtdManager the DTD Manager
+     * @param actionHandler the handler for actions
+     * @param subscriberMaxPendingBytes the high-water mark for the bytes not yet sent to a client
+     * @param subscriberMaxPendingFrames the high-water mark for the frames not yet sent to a client
+     * @param subscriberLagTimeout the maximum time a client can lag before being evicted
+     */
+    WoDTDigitalTwinInterfaceControllerImpl(
+            final DTKGEngineReader dtkgEngine,
+            final DTDManagerReader dtdManager,
+            final BiFunction<String, String, Boolean> actionHandler,
+            final long subscriberMaxPendingBytes,
+            final int subscriberMaxPendingFrames,
+            final Duration subscriberLagTimeout
     ) {
         this.dtkgEngine = dtkgEngine;
         this.dtdManager = dtdManager;
         this.actionHandler = actionHandler;
-        this.webSockets = Collections.synchronizedSet(new HashSet<>());
+        this.webSockets = new DTKGSubscriptionRegistry<>();
+        this.entityTagPrefix = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+        this.subscriberMaxPendingBytes = subscriberMaxPendingBytes;
+        this.subscriberMaxPendingFrames = subscriberMaxPendingFrames;
+        this.subscriberLagTimeout = subscriberLagTimeout;
+        this.lastDeltaVersion = new AtomicLong(UNKNOWN_VERSION);
     }
 
     @Override
@@ -66,38 +168,86 @@ final class WoDTDigitalTwinInterfaceControllerImpl implements WoDTDigitalTwinInt
 
     @Override
     public void routeGetDigitalTwinKnowledgeGraph(final Context context) {
-        final String dtkg = this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph();
-        if (dtkg.isBlank()) {
-            context.status(HttpStatus.NO_CONTENT);
-        } else {
-            context.status(HttpStatus.OK);
-            context.header(Header.CONTENT_TYPE, "text/turtle");
-            context.result(dtkg);
-        }
         context.header(Header.LINK, "<dtd>; rel=\"" + WoDTVocabulary.DTD + "\"");
+        context.header(Header.VARY, Header.ACCEPT + ", " + Header.ACCEPT_ENCODING);
+        final Optional<DTKGFormat> format = negotiateFormat(context.header(Header.ACCEPT));
+        if (format.isEmpty()) {
+            context.status(HttpStatus.NOT_ACCEPTABLE);
+            return;
+        }
+        final Optional<ContentCoding> coding = negotiateCoding(context.header(Header.ACCEPT_ENCODING));
+        final String resource = representation(DTKG_ENTITY_TAG + "-" + format.get().getName(), coding);
+        if (this.isNotModified(context, this.entityTag(resource, this.dtkgEngine.getCurrentVersion()))) {
+            return;
+        }
+        final DTKGResponseTarget target = new DTKGResponseTarget(
+            context,
+            format.get(),
+            coding,
+            version -> this.entityTag(resource, version)
+        );
+        try (target) {
+            this.dtkgEngine.writeCurrentDigitalTwinKnowledgeGraph(format.get(), target);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
     }
 
     @Override
     public void routeGetDigitalTwinKnowledgeGraphEvents(final WsConfig wsContext) {
         wsContext.onConnect(context -> {
+            final Optional<DTKGFormat> format = parseFormat(context);
+            if (format.isEmpty()) {
+                context.closeSession(POLICY_VIOLATION_CLOSE_STATUS, "Unsupported DTKG format");
+                return;
+            }
             context.enableAutomaticPings();
-            this.webSockets.add(context);
-            if (context.session.isOpen()) {
-                context.send(this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+            final DTKGWebSocketSubscriber subscriber = new DTKGWebSocketSubscriber(
+                new WsMessageChannel(context),
+                this.subscriberMaxPendingBytes,
+                this.subscriberMaxPendingFrames,
+                this.subscriberLagTimeout,
+                (task, delay) -> CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(task),
+                System::nanoTime
+            );
+            final Optional<DTKGFilter> filter = this.parseFilter(context);
+            this.webSockets.register(context, subscriber, filter);
+            final Optional<Long> sinceVersion = this.parseVersion(context.queryParam(SINCE_QUERY_PARAMETER));
+            final Optional<List<DTKGDelta>> missingDeltas = sinceVersion.flatMap(this.dtkgEngine::getDeltasSince);
+            if (missingDeltas.isPresent()) {
+                subscriber.startFromVersion(
+                    sinceVersion.get(),
+                    filter.map(deltaFilter -> missingDeltas.get().stream()
+                            .flatMap(delta -> delta.filter(deltaFilter).stream())
+                            .collect(Collectors.toList()))
+                        .orElse(missingDeltas.get())
+                );
+            } else {
+                final DTKGSnapshot snapshot = this.getCurrentSnapshot(filter, format.get());
+                subscriber.startFromSnapshot(toSnapshotMessage(snapshot), snapshot.getVersion());
             }
         });
-        wsContext.onClose(webSockets::remove);
+        wsContext.onClose(this.webSockets::unregister);
+        wsContext.onError(this.webSockets::unregister);
     }
 
     @Override
     public void routeGetDigitalTwinDescriptor(final Context context) {
-        final String dtd = this.dtdManager.getDTD().toJsonString();
-        if (dtd.isBlank()) {
+        context.header(Header.VARY, Header.ACCEPT_ENCODING);
+        final Optional<ContentCoding> coding = negotiateCoding(context.header(Header.ACCEPT_ENCODING));
+        final String resource = representation(DTD_ENTITY_TAG, coding);
+        if (this.isNotModified(context, this.entityTag(resource, this.dtdManager.getCurrentVersion()))) {
+            return;
+        }
+        final DTDSnapshot dtd = this.dtdManager.getCurrentSnapshot();
+        context.header(Header.ETAG, this.entityTag(resource, dtd.getVersion()));
+        if (dtd.getDigitalTwinDescription().isBlank()) {
             context.status(HttpStatus.NO_CONTENT);
         } else {
             context.status(HttpStatus.OK);
             context.header(Header.CONTENT_TYPE, "application/td+json");
-            context.result(dtd);
+            coding.ifPresent(contentCoding -> context.header(Header.CONTENT_ENCODING, contentCoding.getName()));
+            context.result(coding.map(dtd::asInputStream).orElseGet(dtd::asInputStream));
         }
     }
 
@@ -114,8 +264,160 @@ final class WoDTDigitalTwinInterfaceControllerImpl implements WoDTDigitalTwinInt
     }
 
     @Override
-    public void notifyNewDTKG(final String newDtkg) {
-        this.webSockets.stream().filter(ctx -> ctx.session.isOpen()).forEach(session -> session.send(newDtkg));
+    public void notifyDTKGDelta(final DTKGDelta delta) {
+        final long lastVersion = this.lastDeltaVersion.getAndSet(delta.getVersion());
+        if (lastVersion != UNKNOWN_VERSION && delta.getPreviousVersion() != lastVersion) {
+            // Some deltas were dropped before reaching this controller, so clients cannot apply the RDF Patch:
+            // they are resynchronized with the current DTKG instead, that includes this delta too.
+            // The snapshot of each filter and format is serialized once, and its message is shared by the clients.
+            final Map<Optional<DTKGFilter>, Map<DTKGFormat, Map.Entry<Long, String>>> snapshotMessages =
+                new HashMap<>();
+            this.webSockets.forEach((context, subscriber) -> {
+                final Optional<DTKGFilter> filter = this.parseFilter(context);
+                final Map.Entry<Long, String> snapshotMessage = snapshotMessages
+                    .computeIfAbsent(filter, snapshotFilter -> new EnumMap<>(DTKGFormat.class))
+                    .computeIfAbsent(parseFormat(context).orElse(DTKGFormat.TURTLE), format -> {
+                        final DTKGSnapshot snapshot = this.getCurrentSnapshot(filter, format);
+                        return Map.entry(snapshot.getVersion(), toSnapshotMessage(snapshot));
+                    });
+                subscriber.resync(snapshotMessage.getValue(), snapshotMessage.getKey());
+            });
+            return;
+        }
+        this.webSockets.publish(delta);
+    }
+
+    @Override
+    public DTKGSubscriptionStatistics getDTKGSubscriptionStatistics() {
+        return this.webSockets.getStatistics();
+    }
+
+    private DTKGSnapshot getCurrentSnapshot(final Optional<DTKGFilter> filter, final DTKGFormat format) {
+        return filter
+            .map(snapshotFilter -> this.dtkgEngine.getCurrentSnapshot(snapshotFilter, format))
+            .orElseGet(() -> this.dtkgEngine.getCurrentSnapshot(format));
+    }
+
+    private static String toSnapshotMessage(final DTKGSnapshot snapshot) {
+        return "# version \"" + snapshot.getVersion() + "\"\n" + snapshot.getDigitalTwinKnowledgeGraph();
+    }
+
+    // The requested format, Turtle by default, or none if it cannot be sent through the WebSocket.
+    private static Optional<DTKGFormat> parseFormat(final WsContext context) {
+        return Optional.ofNullable(context.queryParam(FORMAT_QUERY_PARAMETER))
+            .map(name -> DTKGFormat.fromName(name).filter(WEB_SOCKET_FORMATS::contains))
+            .orElse(Optional.of(DTKGFormat.TURTLE));
+    }
+
+    private Optional<DTKGFilter> parseFilter(final WsContext context) {
+        final List<String> propertyKeys = context.queryParams(PROPERTY_QUERY_PARAMETER);
+        final List<String> domainTags = context.queryParams(DOMAIN_TAG_QUERY_PARAMETER);
+        if (propertyKeys.isEmpty() && domainTags.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new DTKGFilter(Set.copyOf(propertyKeys), Set.copyOf(domainTags)));
+    }
+
+    private Optional<Long> parseVersion(final String version) {
+        try {
+            return Optional.ofNullable(version).map(Long::parseLong);
+        } catch (final NumberFormatException exception) {
+            return Optional.empty();
+        }
+    }
+
+    // The supported format with the highest quality, preferring specific media types over ranges on ties.
+    private static Optional<DTKGFormat> negotiateFormat(final String accept) {
+        if (accept == null || accept.isBlank()) {
+            return Optional.of(DTKGFormat.TURTLE);
+        }
+        DTKGFormat negotiatedFormat = null;
+        int negotiatedQuality = 0;
+        boolean negotiatedMediaType = false;
+        for (final String mediaRange : accept.split(",")) {
+            final String[] parameters = mediaRange.split(";");
+            final String mediaType = parameters[0].trim().toLowerCase(Locale.ROOT);
+            final boolean isRange = TURTLE_MEDIA_RANGES.contains(mediaType);
+            final Optional<DTKGFormat> format = isRange
+                ? Optional.of(DTKGFormat.TURTLE)
+                : DTKGFormat.fromMediaType(mediaType);
+            final int quality = parseQuality(parameters);
+            if (format.isPresent() && (quality > negotiatedQuality
+                    || quality == negotiatedQuality && quality > 0 && !isRange && !negotiatedMediaType)) {
+                negotiatedFormat = format.get();
+                negotiatedQuality = quality;
+                negotiatedMediaType = !isRange;
+            }
+        }
+        return Optional.ofNullable(negotiatedFormat);
+    }
+
+    // The supported coding with the highest quality, preferring the first listed on ties, or none for identity.
+    // The wildcard stands for the codings that are not listed, so a coding listed with q=0 is never chosen.
+    private static Optional<ContentCoding> negotiateCoding(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return Optional.empty();
+        }
+        final List<String[]> codingRanges = Arrays.stream(acceptEncoding.split(","))
+            .map(codingRange -> codingRange.split(";"))
+            .collect(Collectors.toList());
+        final Set<ContentCoding> listedCodings = EnumSet.noneOf(ContentCoding.class);
+        codingRanges.forEach(parameters -> ContentCoding.fromName(parameters[0]).ifPresent(listedCodings::add));
+        ContentCoding negotiatedCoding = null;
+        int negotiatedQuality = 0;
+        for (final String[] parameters : codingRanges) {
+            final List<ContentCoding> codings = ANY_CODING.equals(parameters[0].trim())
+                ? Arrays.stream(ContentCoding.values())
+                    .filter(coding -> !listedCodings.contains(coding))
+                    .collect(Collectors.toList())
+                : ContentCoding.fromName(parameters[0]).stream().collect(Collectors.toList());
+            final int quality = parseQuality(parameters);
+            if (!codings.isEmpty() && quality > negotiatedQuality) {
+                negotiatedCoding = codings.get(0);
+                negotiatedQuality = quality;
+            }
+        }
+        return Optional.ofNullable(negotiatedCoding);
+    }
+
+    private static String representation(final String resource, final Optional<ContentCoding> coding) {
+        return coding.map(contentCoding -> resource + "-" + contentCoding.getName()).orElse(resource);
+    }
+
+    private static int parseQuality(final String... parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            final String parameter = parameters[i].trim().toLowerCase(Locale.ROOT);
+            if (parameter.startsWith(QUALITY_PARAMETER)) {
+                try {
+                    final double quality = Double.parseDouble(parameter.substring(QUALITY_PARAMETER.length()));
+                    return (int) Math.round(Math.max(0, Math.min(1, quality)) * QUALITY_SCALE);
+                } catch (final NumberFormatException exception) {
+                    return 0;
+                }
+            }
+        }
+        return QUALITY_SCALE;
+    }
+
+    private String entityTag(final String resource, final long version) {
+        return "\"" + resource + "-" + this.entityTagPrefix + "-" + version + "\"";
+    }
+
+    private boolean isNotModified(final Context context, final String entityTag) {
+        final String ifNoneMatch = context.header(Header.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ANY_ENTITY_TAG.equals(ifNoneMatch.trim())
+                || Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .map(tag -> tag.startsWith(WEAK_ENTITY_TAG_PREFIX)
+                        ? tag.substring(WEAK_ENTITY_TAG_PREFIX.length())
+                        : tag)
+                    .anyMatch(entityTag::equals))
+        ) {
+            context.header(Header.ETAG, entityTag);
+            context.status(HttpStatus.NOT_MODIFIED);
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -126,4 +428,127 @@ final class WoDTDigitalTwinInterfaceControllerImpl implements WoDTDigitalTwinInt
         app.ws("/dtkg", this::routeGetDigitalTwinKnowledgeGraphEvents);
         app.post("/action/{actionName}", this::routeHandleActionInvocation);
     }
+
+    /**
+     * Target that writes the DTKG to an HTTP response, compressed with the negotiated content coding, if any.
+     * Snapshots are served with their cached compressed representation, streamed DTKGs are compressed on the fly.
+     */
+    private static final class DTKGResponseTarget implements DTKGStreamTarget, Closeable {
+        private final Context context;
+        private final DTKGFormat format;
+        private final Optional<ContentCoding> coding;
+        private final LongFunction<String> entityTag;
+        private DeflaterOutputStream compressingStream;
+
+        DTKGResponseTarget(
+                final Context context,
+                final DTKGFormat format,
+                final Optional<ContentCoding> coding,
+                final LongFunction<String> entityTag
+        ) {
+            this.context = context;
+            this.format = format;
+            this.coding = coding;
+            this.entityTag = entityTag;
+        }
+
+        @Override
+        public OutputStream open(final long version, final boolean empty) throws IOException {
+            if (!this.prepareResponse(version, empty)) {
+                return OutputStream.nullOutputStream();
+            }
+            if (this.coding.isPresent()) {
+                // Closing the compressing stream releases its deflater, but the response stream is left to Javalin.
+                this.compressingStream = this.coding.get().compressingStream(
+                    new NonClosingOutputStream(this.context.outputStream())
+                );
+                return this.compressingStream;
+            }
+            return this.context.outputStream();
+        }
+
+        @Override
+        public void write(final DTKGSnapshot snapshot) throws IOException {
+            if (this.prepareResponse(snapshot.getVersion(), snapshot.isEmpty())) {
+                this.coding.map(snapshot::asInputStream)
+                    .orElseGet(snapshot::asInputStream)
+                    .transferTo(this.context.outputStream());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.compressingStream != null) {
+                this.compressingStream.close();
+            }
+        }
+
+        private boolean prepareResponse(final long version, final boolean empty) {
+            this.context.header(Header.ETAG, this.entityTag.apply(version));
+            if (empty) {
+                this.context.status(HttpStatus.NO_CONTENT);
+                return false;
+            }
+            this.context.status(HttpStatus.OK);
+            this.context.header(Header.CONTENT_TYPE, this.format.getMediaType());
+            this.coding.ifPresent(contentCoding ->
+                this.context.header(Header.CONTENT_ENCODING, contentCoding.getName())
+            );
+            return true;
+        }
+    }
+
+    /**
+     * Stream that writes to another one, but only flushes it when closed.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(final OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            this.out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.flush();
+        }
+    }
+
+    /**
+     * Channel that sends messages through a Javalin WebSocket with non-blocking writes.
+     */
+    private static final class WsMessageChannel implements DTKGWebSocketSubscriber.MessageChannel {
+        private final WsContext context;
+
+        WsMessageChannel(final WsContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void send(final String message, final Runnable onSuccess, final Consumer<Throwable> onFailure) {
+            if (!this.context.session.isOpen()) {
+                onFailure.accept(new IllegalStateException("WebSocket session closed"));
+                return;
+            }
+            this.context.session.getRemote().sendString(message, new WriteCallback() {
+                @Override
+                public void writeFailed(final Throwable cause) {
+                    onFailure.accept(cause);
+                }
+
+                @Override
+                public void writeSuccess() {
+                    onSuccess.run();
+                }
+            });
+        }
+
+        @Override
+        public void close(final String reason) {
+            this.context.closeSession(POLICY_VIOLATION_CLOSE_STATUS, reason);
+        }
+    }
 }
@@ -22,9 +22,11 @@ import io.github.webbasedwodt.application.component.DTDManagerReader;
 import io.github.webbasedwodt.application.component.DTKGEngine;
 import io.github.webbasedwodt.application.component.PlatformManagementInterfaceNotifier;
 import io.github.webbasedwodt.application.component.WoDTWebServer;
+import io.github.webbasedwodt.model.dtkg.DTKGSubscriptionStatistics;
 import io.javalin.Javalin;
 import io.javalin.http.HttpStatus;
 
+import java.time.Duration;
 import java.util.function.BiFunction;
 
 /**
@@ -43,18 +45,29 @@ final class WoDTWebServerImpl implements WoDTWebServer {
      * @param dtdManager the DTDManager
      * @param actionHandler handler of action invocation
      * @param platformManagementInterfaceNotifier the Platform Management Interface Notifier component
+     * @param subscriberMaxPendingBytes the high-water mark for the bytes not yet sent to a DTKG WebSocket client
+     * @param subscriberMaxPendingFrames the high-water mark for the frames not yet sent to a DTKG WebSocket client
+     * @param subscriberLagTimeout the maximum time a DTKG WebSocket client can lag before being evicted
      */
     WoDTWebServerImpl(
             final int portNumber,
             final DTKGEngine dtkgEngine,
             final DTDManagerReader dtdManager,
             final BiFunction<String, String, Boolean> actionHandler,
-            final PlatformManagementInterfaceNotifier platformManagementInterfaceNotifier
+            final PlatformManagementInterfaceNotifier platformManagementInterfaceNotifier,
+            final long subscriberMaxPendingBytes,
+            final int subscriberMaxPendingFrames,
+            final Duration subscriberLagTimeout
             ) {
         this.portNumber = portNumber;
         this.wodtDigitalTwinInterfaceController = new WoDTDigitalTwinInterfaceControllerImpl(
-                dtkgEngine, dtdManager, actionHandler);
-        dtkgEngine.addDTKGObserver(this.wodtDigitalTwinInterfaceController::notifyNewDTKG);
+                dtkgEngine,
+                dtdManager,
+                actionHandler,
+                subscriberMaxPendingBytes,
+                subscriberMaxPendingFrames,
+                subscriberLagTimeout);
+        dtkgEngine.addDTKGObserver(this.wodtDigitalTwinInterfaceController::notifyDTKGDelta);
         this.platformManagementInterfaceAPIController = new PlatformManagementInterfaceAPIControllerImpl(
                 platformManagementInterfaceNotifier
         );
@@ -62,10 +75,16 @@ final class WoDTWebServerImpl implements WoDTWebServer {
 
     @Override
     public void start() {
-        final Javalin app = Javalin.create().start(this.portNumber);
+        // The DTKG and the DTD are precompressed, so they must not be compressed again on every response.
+        final Javalin app = Javalin.create(config -> config.http.disableCompression()).start(this.portNumber);
         app.exception(JsonMappingException.class, (e, context) -> context.status(HttpStatus.BAD_REQUEST));
         app.exception(JsonParseException.class, (e, context) -> context.status(HttpStatus.BAD_REQUEST));
         this.wodtDigitalTwinInterfaceController.registerRoutes(app);
         this.platformManagementInterfaceAPIController.registerRoutes(app);
     }
+
+    @Override
+    public DTKGSubscriptionStatistics getDTKGSubscriptionStatistics() {
+        return this.wodtDigitalTwinInterfaceController.getDTKGSubscriptionStatistics();
+    }
 }
@@ -18,6 +18,7 @@ package io.github.webbasedwodt.adapter;
 
 import io.github.webbasedwodt.application.component.DTDManager;
 import io.github.webbasedwodt.application.component.PlatformManagementInterfaceReader;
+import io.github.webbasedwodt.model.dtd.DTDSnapshot;
 import io.github.webbasedwodt.model.dtd.DTVersion;
 import io.github.webbasedwodt.model.ontology.DigitalTwinSemantics;
 import io.github.webbasedwodt.model.ontology.WoDTVocabulary;
@@ -56,11 +57,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * This class provide an implementation of the {@link io.github.webbasedwodt.application.component.DTDManager} using
  * a WoT Thing Description to implement the Digital Twin Description.
+ * The Thing Description is built at most once per DTD version and it is cached, together with its serialization,
+ * until a property, a relationship, an action or a platform registration changes.
  */
 public final class WoTDTDManager implements DTDManager {
     private static final String MODEL_VERSION = "1.0.0";
@@ -75,6 +81,14 @@ public final class WoTDTDManager implements DTDManager {
     private final Map<String, Property> properties;
     private final Map<String, Property> relationships;
     private final Map<String, Action> actions;
+    private final AtomicLong version;
+    private final AtomicReference<CachedDTD> cachedDTD;
+    private final Object cachedDTDLock;
+    private final AtType digitalTwinTypes;
+    private final Property availableActionsProperty;
+    private final BaseLink<?> thingModelLink;
+    private final BaseLink<?> dtkgLink;
+    private final RootFormElement observeAllPropertiesForm;
 
     /**
      * Default constructor.
@@ -94,41 +108,86 @@ public final class WoTDTDManager implements DTDManager {
         this.digitalTwinSemantics = digitalTwinSemantics;
         this.physicalAssetId = physicalAssetId;
         this.platformManagementInterfaceReader = platformManagementInterfaceReader;
-        this.properties = new HashMap<>();
-        this.relationships = new HashMap<>();
-        this.actions = new HashMap<>();
+        this.properties = new ConcurrentHashMap<>();
+        this.relationships = new ConcurrentHashMap<>();
+        this.actions = new ConcurrentHashMap<>();
+        this.version = new AtomicLong();
+        this.cachedDTD = new AtomicReference<>();
+        this.cachedDTDLock = new Object();
+        this.digitalTwinTypes = AtType.newMultipleAtType(
+            this.digitalTwinSemantics.getDigitalTwinTypes()
+                .stream()
+                .map(type -> AtType.newSingleAtType(type.getUri().map(URI::toString).orElse("")))
+                .collect(Collectors.toList())
+        );
+        this.availableActionsProperty = Property.newBuilder(AVAILABLE_ACTIONS_PROPERTY)
+                .setAtType(AtType.newSingleAtType(WoDTVocabulary.AVAILABLE_ACTIONS.getUri()))
+                .setReadOnly(true)
+                .build();
+        this.thingModelLink = Link.newBuilder()
+                .setHref(IRI.of(THING_MODEL_URL))
+                .setRel("type")
+                .setType("application/tm+json")
+                .build();
+        this.dtkgLink = Link.newBuilder()
+                .setHref(IRI.of(UriUtil.uriRelativeResolve(this.digitalTwinUri, "dtkg").toString()))
+                .setRel(WoDTVocabulary.DTKG.getUri())
+                .build();
+        this.observeAllPropertiesForm = RootFormElement.newBuilder()
+                .setHref(IRI.of(
+                    UriUtil.uriRelativeResolve(
+                        URI.create(
+                            this.digitalTwinUri.toString().replaceFirst("([a-zA-Z][a-zA-Z0-9+.-]*):", "ws:")),
+                        "dtkg"
+                    ).toString())
+                )
+                .setSubprotocol("websocket")
+                .setOp(SingleRootFormElementOp.OBSERVEALLPROPERTIES)
+                .build();
     }
 
     @Override
     public void addProperty(final DigitalTwinStateProperty<?> property) {
-        this.createDTDProperty(property)
-                .ifPresent(wotProperty -> this.properties.put(property.getKey(), wotProperty));
+        this.createDTDProperty(property).ifPresent(wotProperty -> {
+            this.properties.put(property.getKey(), wotProperty);
+            this.version.incrementAndGet();
+        });
     }
 
     @Override
     public boolean removeProperty(final DigitalTwinStateProperty<?> property) {
-        return this.properties.remove(property.getKey()) != null;
+        return this.updateVersionIf(this.properties.remove(property.getKey()) != null);
     }
 
     @Override
     public void addRelationship(final DigitalTwinStateRelationship<?> relationship) {
-        this.createDTDProperty(relationship)
-                .ifPresent(wotRelationship -> this.relationships.put(relationship.getName(), wotRelationship));
+        this.createDTDProperty(relationship).ifPresent(wotRelationship -> {
+            this.relationships.put(relationship.getName(), wotRelationship);
+            this.version.incrementAndGet();
+        });
     }
 
     @Override
     public boolean removeRelationship(final DigitalTwinStateRelationship<?> relationship) {
-        return this.relationships.remove(relationship.getName()) != null;
+        return this.updateVersionIf(this.relationships.remove(relationship.getName()) != null);
     }
 
     @Override
     public void addAction(final DigitalTwinStateAction action) {
-        this.createDTDAction(action).ifPresent(wotAction -> this.actions.put(action.getKey(), wotAction));
+        this.createDTDAction(action).ifPresent(wotAction -> {
+            this.actions.put(action.getKey(), wotAction);
+            this.version.incrementAndGet();
+        });
     }
 
     @Override
     public boolean removeAction(final DigitalTwinStateAction action) {
-        return this.actions.remove(action.getKey()) != null;
+        return this.updateVersionIf(this.actions.remove(action.getKey()) != null);
+    }
+
+    @Override
+    public long getCurrentVersion() {
+        return this.version.get() + this.platformManagementInterfaceReader.getRegistrationsVersion();
     }
 
     @Override
@@ -138,13 +197,40 @@ public final class WoTDTDManager implements DTDManager {
 
     @Override
     public ThingDescription getDTD() {
+        return this.getCachedDTD().thingDescription;
+    }
+
+    @Override
+    public DTDSnapshot getCurrentSnapshot() {
+        return this.getCachedDTD().snapshot;
+    }
+
+    private CachedDTD getCachedDTD() {
+        final CachedDTD currentDTD = this.cachedDTD.get();
+        if (currentDTD != null && currentDTD.snapshot.getVersion() == this.getCurrentVersion()) {
+            return currentDTD;
+        }
+        synchronized (this.cachedDTDLock) {
+            final long currentVersion = this.getCurrentVersion();
+            final CachedDTD lastDTD = this.cachedDTD.get();
+            if (lastDTD != null && lastDTD.snapshot.getVersion() == currentVersion) {
+                return lastDTD;
+            }
+            final ThingDescription thingDescription = this.buildDTD();
+            final CachedDTD newDTD = new CachedDTD(
+                thingDescription,
+                new DTDSnapshot(currentVersion, thingDescription.toJsonString())
+            );
+            this.cachedDTD.set(newDTD);
+            return newDTD;
+        }
+    }
+
+    private ThingDescription buildDTD() {
         final Map<String, Property> dtdProperties = new HashMap<>(this.properties);
         dtdProperties.putAll(this.relationships);
         if (!actions.isEmpty()) {
-            dtdProperties.put(AVAILABLE_ACTIONS_PROPERTY, Property.newBuilder(AVAILABLE_ACTIONS_PROPERTY)
-                            .setAtType(AtType.newSingleAtType(WoDTVocabulary.AVAILABLE_ACTIONS.getUri()))
-                            .setReadOnly(true)
-                            .build());
+            dtdProperties.put(AVAILABLE_ACTIONS_PROPERTY, this.availableActionsProperty);
         }
 
         final List<BaseLink<?>> links = this.platformManagementInterfaceReader
@@ -154,27 +240,13 @@ public final class WoTDTDManager implements DTDManager {
                         .setRel(WoDTVocabulary.REGISTERED_TO_PLATFORM.getUri())
                         .build())
                 .collect(Collectors.toList());
-        links.add(Link.newBuilder()
-            .setHref(IRI.of(THING_MODEL_URL))
-            .setRel("type")
-            .setType("application/tm+json")
-            .build());
-        links.add(Link.newBuilder()
-            .setHref(IRI.of(UriUtil.uriRelativeResolve(this.digitalTwinUri, "dtkg").toString()))
-            .setRel(WoDTVocabulary.DTKG.getUri())
-            .build());
+        links.add(this.thingModelLink);
+        links.add(this.dtkgLink);
 
         return ThingDescription.newBuilder()
                 .setAtContext(AtContext.newSingleUriAtContext(SingleUriAtContext.W3ORG_2022_WOT_TD_V11))
                 .setId(IRI.of(this.digitalTwinUri.toString()))
-                .setAtType(
-                    AtType.newMultipleAtType(
-                        this.digitalTwinSemantics.getDigitalTwinTypes()
-                            .stream()
-                            .map(type -> AtType.newSingleAtType(type.getUri().map(URI::toString).orElse("")))
-                            .collect(Collectors.toList())
-                    )
-                )
+                .setAtType(this.digitalTwinTypes)
                 .setVersion(Version.newBuilder()
                         .setInstance(this.dtVersion.toString())
                         .setModel(MODEL_VERSION)
@@ -185,20 +257,16 @@ public final class WoTDTDManager implements DTDManager {
                 .setSecurity(Security.newSingleSecurity("nosec_sc"))
                 .setProperties(Properties.from(dtdProperties.values()))
                 .setActions(Actions.from(this.actions.values()))
-                .setForms(List.of(RootFormElement.newBuilder()
-                                .setHref(IRI.of(
-                                    UriUtil.uriRelativeResolve(
-                                        URI.create(
-                                            this.digitalTwinUri.toString().replaceFirst("([a-zA-Z][a-zA-Z0-9+.-]*):", "ws:")),
-                                        "dtkg"
-                                    ).toString())
-                                )
-                                .setSubprotocol("websocket")
-                                .setOp(SingleRootFormElementOp.OBSERVEALLPROPERTIES)
-                                .build()))
+                .setForms(List.of(this.observeAllPropertiesForm))
                 .setLinks(links)
                 .build();
+    }
 
+    private boolean updateVersionIf(final boolean changed) {
+        if (changed) {
+            this.version.incrementAndGet();
+        }
+        return changed;
     }
 
     private Optional<Property> createDTDProperty(final DigitalTwinStateProperty<?> dtProperty) {
@@ -247,4 +315,17 @@ public final class WoTDTDManager implements DTDManager {
                     .build())))
                 .build());
     }
+
+    /**
+     * A built DTD together with its serialization.
+     */
+    private static final class CachedDTD {
+        private final ThingDescription thingDescription;
+        private final DTDSnapshot snapshot;
+
+        CachedDTD(final ThingDescription thingDescription, final DTDSnapshot snapshot) {
+            this.thingDescription = thingDescription;
+            this.snapshot = snapshot;
+        }
+    }
 }
@@ -16,6 +16,7 @@
 
 package io.github.webbasedwodt.application.component;
 
+import io.github.webbasedwodt.model.dtd.DTDSnapshot;
 import org.eclipse.ditto.wot.model.ThingDescription;
 
 import java.util.Set;
@@ -35,4 +36,18 @@ public interface DTDManagerReader {
      * @return Digital Twin Description implemented with a Thing Description
      */
     ThingDescription getDTD();
+
+    /**
+     * Obtain the serialization of the current Digital Twin Description together with its version.
+     * The same version is built and serialized only once.
+     * @return the snapshot of the current DTD
+     */
+    DTDSnapshot getCurrentSnapshot();
+
+    /**
+     * Obtain the current version of the Digital Twin Description, without building it.
+     * The version changes each time the DTD changes, registrations to platforms included.
+     * @return the current version of the DTD
+     */
+    long getCurrentVersion();
 }
@@ -77,6 +77,12 @@ public interface DTKGEngine extends DTKGEngineReader {
      */
     boolean removeAction(DigitalTwinStateAction action);
 
+    /**
+     * Begin a batch of changes that are applied to the Digital Twin Knowledge Graph all at once.
+     * @return the new batch of changes
+     */
+    DTKGUpdateBatch beginUpdateBatch();
+
     /**
      * Add a {@link DTKGObserver} that will be notified for each DTKG update.
      * @param observer the observer to add.
@@ -85,6 +91,7 @@ public interface DTKGEngine extends DTKGEngineReader {
 
     /**
      * Commits a transaction, notifying all the observers about the changes occurred in the DTKG update.
+     * Observers receive only the delta of the transaction, and they are not notified if nothing changed.
      */
     void commitUpdateTransaction();
 }
@@ -16,6 +16,15 @@
 
 package io.github.webbasedwodt.application.component;
 
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+import io.github.webbasedwodt.model.dtkg.DTKGFilter;
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import io.github.webbasedwodt.model.dtkg.DTKGSnapshot;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Reader part of the DTKGEngine component of the Abstract Architecture -- for ISP.
  */
@@ -26,4 +35,63 @@ public interface DTKGEngineReader {
      * @return the current state of the DTKG
      */
     String getCurrentDigitalTwinKnowledgeGraph();
+
+    /**
+     * Obtain the current version of the Digital Twin Knowledge Graph, without serializing it.
+     * The version changes each time the DTKG is updated.
+     * @return the current version of the DTKG
+     */
+    long getCurrentVersion();
+
+    /**
+     * Obtain the current status of the Digital Twin Knowledge Graph together with its version.
+     * The same version is serialized only once, so subsequent calls without updates return the same snapshot.
+     * @return the snapshot of the current state of the DTKG
+     */
+    DTKGSnapshot getCurrentSnapshot();
+
+    /**
+     * Obtain the current status of the Digital Twin Knowledge Graph, serialized in a specific format, together with
+     * its version.
+     * Each format of the same version is serialized only once.
+     * @param format the format of the serialization
+     * @return the snapshot of the current state of the DTKG
+     */
+    DTKGSnapshot getCurrentSnapshot(DTKGFormat format);
+
+    /**
+     * Obtain the current status of the part of the Digital Twin Knowledge Graph that belongs to the properties
+     * matching a filter, together with its version.
+     * @param filter the filter on the properties
+     * @return the snapshot of the current state of the selected part of the DTKG
+     */
+    DTKGSnapshot getCurrentSnapshot(DTKGFilter filter);
+
+    /**
+     * Obtain the current status of the part of the Digital Twin Knowledge Graph that belongs to the properties
+     * matching a filter, serialized in a specific format, together with its version.
+     * @param filter the filter on the properties
+     * @param format the format of the serialization
+     * @return the snapshot of the current state of the selected part of the DTKG
+     */
+    DTKGSnapshot getCurrentSnapshot(DTKGFilter filter, DTKGFormat format);
+
+    /**
+     * Write the current status of the Digital Twin Knowledge Graph, serialized in a specific format, to a stream.
+     * Large DTKGs are written triple by triple, from a consistent view, without materializing their serialization,
+     * so the memory needed does not depend on their size.
+     * @param format the format of the serialization
+     * @param target the target that provides the stream, given the version of the DTKG
+     * @throws IOException if the DTKG cannot be written
+     */
+    void writeCurrentDigitalTwinKnowledgeGraph(DTKGFormat format, DTKGStreamTarget target) throws IOException;
+
+    /**
+     * Obtain the deltas committed after a specific version of the Digital Twin Knowledge Graph.
+     * Only the most recent deltas are retained.
+     * @param version the version of the DTKG already known
+     * @return the deltas, in commit order, or an empty optional if they are no longer all retained and the whole
+     *     DTKG is needed
+     */
+    Optional<List<DTKGDelta>> getDeltasSince(long version);
 }
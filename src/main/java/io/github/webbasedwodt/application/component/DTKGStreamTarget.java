@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.application.component;
+
+import io.github.webbasedwodt.model.dtkg.DTKGSnapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Destination of the Digital Twin Knowledge Graph streamed by a {@link DTKGEngineReader}.
+ */
+@FunctionalInterface
+public interface DTKGStreamTarget {
+    /**
+     * Open the stream where to write the DTKG, once its version is known and before anything is written.
+     * @param version the version of the DTKG
+     * @param empty true if the DTKG is empty, and so nothing will be written
+     * @return the stream where to write the DTKG
+     * @throws IOException if the stream cannot be opened
+     */
+    OutputStream open(long version, boolean empty) throws IOException;
+
+    /**
+     * Write a DTKG already serialized in a snapshot, e.g., to serve a representation derived from it.
+     * By default, the snapshot is copied to the opened stream.
+     * @param snapshot the snapshot of the DTKG
+     * @throws IOException if the DTKG cannot be written
+     */
+    default void write(final DTKGSnapshot snapshot) throws IOException {
+        snapshot.asInputStream().transferTo(this.open(snapshot.getVersion(), snapshot.isEmpty()));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.application.component;
+
+import it.wldt.core.state.DigitalTwinStateAction;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
+
+import java.util.function.Consumer;
+
+/**
+ * This interface models a batch of changes to the Digital Twin Knowledge Graph.
+ * Changes start to be mapped as soon as they are added to the batch, possibly in parallel, while they are applied,
+ * in order, only when the batch is applied, all at once: readers never observe a partially applied batch.
+ */
+public interface DTKGUpdateBatch {
+    /**
+     * Add a Digital Twin property within the Digital Twin Knowledge Graph.
+     * @param property the property to add
+     * @return this batch
+     */
+    DTKGUpdateBatch addDigitalTwinProperty(DigitalTwinStateProperty<?> property);
+
+    /**
+     * Update a Digital Twin property within the Digital Twin Knowledge Graph.
+     * @param property the property to update
+     * @param oldProperty the old property that has been updated
+     * @return this batch
+     */
+    DTKGUpdateBatch updateDigitalTwinProperty(
+            DigitalTwinStateProperty<?> property,
+            DigitalTwinStateProperty<?> oldProperty
+    );
+
+    /**
+     * Remove a Digital Twin property within the Digital Twin Knowledge Graph, if present.
+     * @param property the property to delete
+     * @return this batch
+     */
+    DTKGUpdateBatch removeProperty(DigitalTwinStateProperty<?> property);
+
+    /**
+     * Add a relationship with another Digital Twin.
+     * @param relationshipInstance the relationship instance to add
+     * @return this batch
+     */
+    DTKGUpdateBatch addRelationship(DigitalTwinStateRelationshipInstance<?> relationshipInstance);
+
+    /**
+     * Delete a relationship with another Digital Twin, if present.
+     * @param relationshipInstance the relationship instance to remove
+     * @return this batch
+     */
+    DTKGUpdateBatch removeRelationship(DigitalTwinStateRelationshipInstance<?> relationshipInstance);
+
+    /**
+     * Add an available action on the Digital Twin Knowledge Graph.
+     * @param action the action to add
+     * @return this batch
+     */
+    DTKGUpdateBatch addAction(DigitalTwinStateAction action);
+
+    /**
+     * Remove an action from the Digital Twin Knowledge Graph, if present.
+     * @param action the action to remove
+     * @return this batch
+     */
+    DTKGUpdateBatch removeAction(DigitalTwinStateAction action);
+
+    /**
+     * Apply all the changes of the batch to the Digital Twin Knowledge Graph at once.
+     * Changes still have to be committed, via {@link DTKGEngine#commitUpdateTransaction()}, to notify observers.
+     * If the mapping of a change failed, its exception is thrown here and no change is applied.
+     * Likewise, if a change cannot be applied, its exception is thrown here and the changes already applied are undone.
+     */
+    void apply();
+
+    /**
+     * Apply all the changes of the batch that can be mapped and applied to the Digital Twin Knowledge Graph at once,
+     * skipping the others, e.g., a property without a mapping.
+     * Changes still have to be committed, via {@link DTKGEngine#commitUpdateTransaction()}, to notify observers.
+     * @param onSkippedChange the consumer of the exception of each skipped change, called after the others are applied
+     */
+    void applySkippingFailedChanges(Consumer<RuntimeException> onSkippedChange);
+}
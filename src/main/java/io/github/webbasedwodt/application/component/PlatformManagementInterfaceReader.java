@@ -28,4 +28,10 @@ public interface PlatformManagementInterfaceReader {
      * @return the set of urls.
      */
     Set<URI> getRegisteredPlatformUrls();
+
+    /**
+     * This method allows to obtain a version number that changes each time the set of registered platforms changes.
+     * @return the version of the registrations.
+     */
+    long getRegistrationsVersion();
 }
@@ -16,6 +16,8 @@
 
 package io.github.webbasedwodt.application.component;
 
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+import io.github.webbasedwodt.model.dtkg.DTKGSubscriptionStatistics;
 import io.javalin.http.Context;
 import io.javalin.websocket.WsConfig;
 
@@ -54,8 +56,14 @@ public interface WoDTDigitalTwinInterfaceController extends WebServerController
     void routeHandleActionInvocation(Context context);
 
     /**
-     * Notify the presence of a new Digital Twin Knowledge Graph.
-     * @param newDtkg the new DTKG.
+     * Notify the changes committed on the Digital Twin Knowledge Graph.
+     * @param delta the delta between the previous and the new DTKG.
      */
-    void notifyNewDTKG(String newDtkg);
+    void notifyDTKGDelta(DTKGDelta delta);
+
+    /**
+     * Get the statistics of the clients subscribed to the DTKG updates.
+     * @return the current statistics
+     */
+    DTKGSubscriptionStatistics getDTKGSubscriptionStatistics();
 }
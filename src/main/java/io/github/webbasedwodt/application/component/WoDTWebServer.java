@@ -16,6 +16,8 @@
 
 package io.github.webbasedwodt.application.component;
 
+import io.github.webbasedwodt.model.dtkg.DTKGSubscriptionStatistics;
+
 /**
  * This interface models the WoDT Web Server that allow to use the WoDT Digital Twin Interface component.
  */
@@ -24,4 +26,10 @@ public interface WoDTWebServer {
      * Start the web server.
      */
     void start();
+
+    /**
+     * Get the statistics of the clients subscribed to the DTKG updates.
+     * @return the current statistics
+     */
+    DTKGSubscriptionStatistics getDTKGSubscriptionStatistics();
 }
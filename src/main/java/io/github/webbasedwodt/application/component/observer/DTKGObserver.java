@@ -16,14 +16,16 @@
 
 package io.github.webbasedwodt.application.component.observer;
 
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+
 /**
  * Interface to model the observers of the evolution of the Digital Twin Knowledge Graph.
  */
 @FunctionalInterface
 public interface DTKGObserver {
     /**
-     * Method to notify the new Digital Twin Knowledge Graph.
-     * @param dtkg the new Digital Twin Knowledge Graph.
+     * Method to notify the changes committed on the Digital Twin Knowledge Graph.
+     * @param delta the delta between the previous and the new Digital Twin Knowledge Graph.
      */
-    void notifyNewDTKG(String dtkg);
+    void notifyDTKGDelta(DTKGDelta delta);
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.application.component.observer;
+
+/**
+ * Policy applied when the queue of the pending notifications of a {@link DTKGObserver} is full.
+ */
+public enum DTKGObserverOverflowPolicy {
+    /**
+     * Merge all the pending deltas, together with the new one, into a single delta that leads to the latest DTKG.
+     * No change is lost.
+     */
+    CONFLATE,
+
+    /**
+     * Drop the oldest pending delta to make room for the new one.
+     * The following RDF Patches cannot be applied without the dropped one, so the observer must detect the gap,
+     * through the previous version of the next delta, and resynchronize from the whole DTKG: the WoDT Digital Twin
+     * Interface resends it to its WebSocket clients.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Stop notifying the observer, logging an error.
+     * The WoDT Digital Twin Interface is an observer too, so with this policy a burst of updates can stop all the
+     * updates to its WebSocket clients: it is meant for optional observers only.
+     */
+    DISCONNECT
+}
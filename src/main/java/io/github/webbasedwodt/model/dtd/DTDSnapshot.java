@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.model.dtd;
+
+import io.github.webbasedwodt.utils.ContentCoding;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class models an immutable serialization of the Digital Twin Description at a specific version.
+ * The serialized DTD is encoded only once, and compressed at most once per {@link ContentCoding}, so it can be
+ * served many times without further work.
+ */
+public final class DTDSnapshot {
+    private final long version;
+    private final String dtd;
+    private final byte[] encodedDtd;
+    private final Map<ContentCoding, byte[]> compressedDtd;
+
+    /**
+     * Default constructor.
+     * @param version the version of the DTD
+     * @param dtd the serialized DTD
+     */
+    public DTDSnapshot(final long version, final String dtd) {
+        this.version = version;
+        this.dtd = dtd;
+        this.encodedDtd = dtd.getBytes(StandardCharsets.UTF_8);
+        this.compressedDtd = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the version of the DTD.
+     * @return the version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Get the serialized DTD.
+     * @return the DTD
+     */
+    public String getDigitalTwinDescription() {
+        return this.dtd;
+    }
+
+    /**
+     * Get the UTF-8 encoded DTD, without copying it.
+     * @return a stream over the encoded DTD
+     */
+    public InputStream asInputStream() {
+        return new ByteArrayInputStream(this.encodedDtd);
+    }
+
+    /**
+     * Get the UTF-8 encoded DTD compressed with a content coding, compressing it only on the first request.
+     * @param coding the content coding
+     * @return a stream over the compressed DTD
+     */
+    public InputStream asInputStream(final ContentCoding coding) {
+        return new ByteArrayInputStream(
+            this.compressedDtd.computeIfAbsent(coding, key -> key.compress(this.encodedDtd))
+        );
+    }
+}
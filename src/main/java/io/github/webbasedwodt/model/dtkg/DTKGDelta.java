@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.model.dtkg;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * This class models the changes applied to the Digital Twin Knowledge Graph within one or more committed
+ * transactions.
+ * The changes are expressed as an <a href="https://afs.github.io/rdf-delta/rdf-patch.html">RDF Patch</a>.
+ * The changes that belong to Digital Twin properties are also available per property, so that the delta can be
+ * restricted to the properties selected by a {@link DTKGFilter}.
+ */
+public final class DTKGDelta {
+    private final long version;
+    private final long previousVersion;
+    private final String transactions;
+    private final Map<String, String> propertyOperations;
+    private final Map<String, String> propertyDomainTags;
+    private final String rdfPatch;
+
+    /**
+     * Default constructor.
+     * @param version the version of the DTKG obtained applying this delta
+     * @param previousVersion the version of the DTKG on which this delta must be applied
+     * @param transactions the RDF Patch transactions, i.e., TX-TC blocks without headers, that describe the changes
+     */
+    public DTKGDelta(final long version, final long previousVersion, final String transactions) {
+        this(version, previousVersion, transactions, Map.of(), Map.of());
+    }
+
+    /**
+     * Constructor for deltas that also describe the changes of each property.
+     * @param version the version of the DTKG obtained applying this delta
+     * @param previousVersion the version of the DTKG on which this delta must be applied
+     * @param transactions the RDF Patch transactions, i.e., TX-TC blocks without headers, that describe the changes
+     * @param propertyOperations the RDF Patch operations, i.e., A and D rows, that belong to each changed property
+     * @param propertyDomainTags the URI of the domain tag of each changed property that has one
+     */
+    public DTKGDelta(
+            final long version,
+            final long previousVersion,
+            final String transactions,
+            final Map<String, String> propertyOperations,
+            final Map<String, String> propertyDomainTags
+    ) {
+        this.version = version;
+        this.previousVersion = previousVersion;
+        this.transactions = transactions;
+        this.propertyOperations = Collections.unmodifiableMap(new LinkedHashMap<>(propertyOperations));
+        this.propertyDomainTags = Collections.unmodifiableMap(new LinkedHashMap<>(propertyDomainTags));
+        this.rdfPatch = "H version \"" + version + "\" .\n"
+                + "H previous \"" + previousVersion + "\" .\n"
+                + transactions;
+    }
+
+    /**
+     * Get the version of the DTKG obtained applying this delta.
+     * @return the version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Get the version of the DTKG on which this delta must be applied.
+     * @return the previous version
+     */
+    public long getPreviousVersion() {
+        return this.previousVersion;
+    }
+
+    /**
+     * Get the RDF Patch that describes the changes.
+     * @return the RDF Patch
+     */
+    public String getRdfPatch() {
+        return this.rdfPatch;
+    }
+
+    /**
+     * Merge this delta with the one that follows it, obtaining a single delta that leads from the previous version
+     * of this delta to the version of the next one.
+     * @param nextDelta the delta that follows this one
+     * @return the merged delta
+     */
+    public DTKGDelta followedBy(final DTKGDelta nextDelta) {
+        final Map<String, String> mergedOperations = new LinkedHashMap<>(this.propertyOperations);
+        nextDelta.propertyOperations.forEach((key, operations) ->
+            mergedOperations.merge(key, operations, String::concat)
+        );
+        final Map<String, String> mergedDomainTags = new LinkedHashMap<>(this.propertyDomainTags);
+        mergedDomainTags.putAll(nextDelta.propertyDomainTags);
+        return new DTKGDelta(
+            nextDelta.version,
+            this.previousVersion,
+            this.transactions + nextDelta.transactions,
+            mergedOperations,
+            mergedDomainTags
+        );
+    }
+
+    /**
+     * Get the keys of the properties changed by this delta.
+     * @return the keys of the changed properties
+     */
+    public Set<String> getChangedPropertyKeys() {
+        return this.propertyOperations.keySet();
+    }
+
+    /**
+     * Get the domain tag of a property changed by this delta.
+     * @param propertyKey the key of the property
+     * @return the URI of the domain tag, if the property has one
+     */
+    public Optional<String> getDomainTag(final String propertyKey) {
+        return Optional.ofNullable(this.propertyDomainTags.get(propertyKey));
+    }
+
+    /**
+     * Restrict this delta to the changes of the properties that match a filter.
+     * @param filter the filter
+     * @return the restricted delta, or an empty optional if no matching property has been changed
+     */
+    public Optional<DTKGDelta> filter(final DTKGFilter filter) {
+        final Map<String, String> matchingOperations = new LinkedHashMap<>();
+        this.propertyOperations.forEach((key, operations) -> {
+            if (filter.matches(key, this.getDomainTag(key))) {
+                matchingOperations.put(key, operations);
+            }
+        });
+        if (matchingOperations.isEmpty()) {
+            return Optional.empty();
+        }
+        final Map<String, String> matchingDomainTags = new LinkedHashMap<>(this.propertyDomainTags);
+        matchingDomainTags.keySet().retainAll(matchingOperations.keySet());
+        return Optional.of(new DTKGDelta(
+            this.version,
+            this.previousVersion,
+            "TX .\n" + String.join("", matchingOperations.values()) + "TC .\n",
+            matchingOperations,
+            matchingDomainTags
+        ));
+    }
+}
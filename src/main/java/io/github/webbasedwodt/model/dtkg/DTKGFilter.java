@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.model.dtkg;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * This class models a filter on the Digital Twin properties that are part of the Digital Twin Knowledge Graph.
+ * A property matches the filter if its key or its domain tag is one of the selected ones.
+ */
+public final class DTKGFilter {
+    private final Set<String> propertyKeys;
+    private final Set<String> domainTags;
+
+    /**
+     * Default constructor.
+     * @param propertyKeys the keys of the selected properties
+     * @param domainTags the URIs of the domain tags of the selected properties
+     */
+    public DTKGFilter(final Set<String> propertyKeys, final Set<String> domainTags) {
+        this.propertyKeys = Set.copyOf(propertyKeys);
+        this.domainTags = Set.copyOf(domainTags);
+    }
+
+    /**
+     * Get the keys of the selected properties.
+     * @return the property keys
+     */
+    public Set<String> getPropertyKeys() {
+        return this.propertyKeys;
+    }
+
+    /**
+     * Get the URIs of the domain tags of the selected properties.
+     * @return the domain tags
+     */
+    public Set<String> getDomainTags() {
+        return this.domainTags;
+    }
+
+    /**
+     * Check if a property matches the filter.
+     * @param propertyKey the key of the property
+     * @param domainTag the URI of the domain tag of the property, if any
+     * @return true if the property matches, false otherwise
+     */
+    public boolean matches(final String propertyKey, final Optional<String> domainTag) {
+        return this.propertyKeys.contains(propertyKey) || domainTag.map(this.domainTags::contains).orElse(false);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || this.getClass() != other.getClass()) {
+            return false;
+        }
+        final DTKGFilter filter = (DTKGFilter) other;
+        return this.propertyKeys.equals(filter.propertyKeys) && this.domainTags.equals(filter.domainTags);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.propertyKeys, this.domainTags);
+    }
+}
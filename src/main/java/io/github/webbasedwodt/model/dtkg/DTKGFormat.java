@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.model.dtkg;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Serialization formats of the Digital Twin Knowledge Graph.
+ */
+public enum DTKGFormat {
+    /**
+     * Turtle, the default format.
+     */
+    TURTLE("turtle", "text/turtle", false),
+
+    /**
+     * N-Triples, a line-based format that is fast to write and to parse.
+     */
+    N_TRIPLES("n-triples", "application/n-triples", false),
+
+    /**
+     * JSON-LD.
+     */
+    JSON_LD("json-ld", "application/ld+json", false),
+
+    /**
+     * RDF Thrift, a binary format that is much faster to parse than the textual ones.
+     */
+    RDF_THRIFT("rdf-thrift", "application/rdf+thrift", true),
+
+    /**
+     * RDF Protobuf, a binary format that is much faster to parse than the textual ones.
+     */
+    RDF_PROTOBUF("rdf-protobuf", "application/rdf+protobuf", true);
+
+    private final String name;
+    private final String mediaType;
+    private final boolean binary;
+
+    DTKGFormat(final String name, final String mediaType, final boolean binary) {
+        this.name = name;
+        this.mediaType = mediaType;
+        this.binary = binary;
+    }
+
+    /**
+     * Get the short name of the format.
+     * @return the name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the media type of the format.
+     * @return the media type
+     */
+    public String getMediaType() {
+        return this.mediaType;
+    }
+
+    /**
+     * Check if the format is binary, i.e., if its serializations are not text.
+     * @return true if the format is binary, false otherwise
+     */
+    public boolean isBinary() {
+        return this.binary;
+    }
+
+    /**
+     * Obtain the format with a specific short name.
+     * @param name the name, case-insensitive
+     * @return the format, or an empty optional if there is no format with that name
+     */
+    public static Optional<DTKGFormat> fromName(final String name) {
+        return Arrays.stream(values()).filter(format -> format.name.equalsIgnoreCase(name)).findFirst();
+    }
+
+    /**
+     * Obtain the format with a specific media type.
+     * @param mediaType the media type, case-insensitive and without parameters
+     * @return the format, or an empty optional if there is no format with that media type
+     */
+    public static Optional<DTKGFormat> fromMediaType(final String mediaType) {
+        final String normalizedMediaType = mediaType.trim().toLowerCase(Locale.ROOT);
+        return Arrays.stream(values()).filter(format -> format.mediaType.equals(normalizedMediaType)).findFirst();
+    }
+}
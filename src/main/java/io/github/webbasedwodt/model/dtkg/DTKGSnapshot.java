@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.model.dtkg;
+
+import io.github.webbasedwodt.utils.ContentCoding;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class models an immutable serialization of the Digital Twin Knowledge Graph at a specific version.
+ * The serialized DTKG is encoded only once, and compressed at most once per {@link ContentCoding}, so it can be
+ * served many times without further work.
+ * An empty DTKG has an empty serialization, whatever the format.
+ */
+public final class DTKGSnapshot {
+    private final long version;
+    private final DTKGFormat format;
+    private final String dtkg;
+    private final byte[] encodedDtkg;
+    private final Map<ContentCoding, byte[]> compressedDtkg;
+
+    /**
+     * Default constructor for a DTKG serialized in Turtle.
+     * @param version the version of the DTKG
+     * @param dtkg the serialized DTKG
+     */
+    public DTKGSnapshot(final long version, final String dtkg) {
+        this(version, DTKGFormat.TURTLE, dtkg);
+    }
+
+    /**
+     * Constructor for a DTKG serialized in a textual format.
+     * @param version the version of the DTKG
+     * @param format the format of the serialization
+     * @param dtkg the serialized DTKG
+     */
+    public DTKGSnapshot(final long version, final DTKGFormat format, final String dtkg) {
+        if (format.isBinary()) {
+            throw new IllegalArgumentException("A binary format cannot be serialized as text.");
+        }
+        this.version = version;
+        this.format = format;
+        this.dtkg = dtkg;
+        this.encodedDtkg = dtkg.getBytes(StandardCharsets.UTF_8);
+        this.compressedDtkg = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Constructor for a DTKG serialized in a binary format.
+     * @param version the version of the DTKG
+     * @param format the format of the serialization
+     * @param encodedDtkg the serialized DTKG
+     */
+    public DTKGSnapshot(final long version, final DTKGFormat format, final byte[] encodedDtkg) {
+        if (!format.isBinary()) {
+            throw new IllegalArgumentException("A textual format must be serialized as text.");
+        }
+        this.version = version;
+        this.format = format;
+        this.dtkg = null;
+        this.encodedDtkg = encodedDtkg.clone();
+        this.compressedDtkg = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the version of the DTKG.
+     * @return the version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Get the format of the serialization.
+     * @return the format
+     */
+    public DTKGFormat getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Get the serialized DTKG.
+     * @return the DTKG
+     * @throws IllegalStateException if the DTKG is serialized in a binary format, use {@link #asInputStream()}
+     */
+    public String getDigitalTwinKnowledgeGraph() {
+        if (this.dtkg == null) {
+            throw new IllegalStateException("The DTKG is serialized in a binary format.");
+        }
+        return this.dtkg;
+    }
+
+    /**
+     * Check if the serialized DTKG is empty.
+     * @return true if the DTKG is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.encodedDtkg.length == 0;
+    }
+
+    /**
+     * Get the encoded DTKG, UTF-8 for the textual formats, without copying it.
+     * @return a stream over the encoded DTKG
+     */
+    public InputStream asInputStream() {
+        return new ByteArrayInputStream(this.encodedDtkg);
+    }
+
+    /**
+     * Get the encoded DTKG compressed with a content coding, compressing it only on the first request.
+     * @param coding the content coding
+     * @return a stream over the compressed DTKG
+     */
+    public InputStream asInputStream(final ContentCoding coding) {
+        return new ByteArrayInputStream(
+            this.compressedDtkg.computeIfAbsent(coding, key -> key.compress(this.encodedDtkg))
+        );
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.model.dtkg;
+
+/**
+ * This class models the statistics of the clients subscribed to the DTKG updates, taken at a specific moment.
+ */
+public final class DTKGSubscriptionStatistics {
+    private final int subscribers;
+    private final int laggingSubscribers;
+    private final long evictedSubscribers;
+    private final long pendingFrames;
+    private final long pendingBytes;
+
+    /**
+     * Default constructor.
+     * @param subscribers the number of subscribed clients
+     * @param laggingSubscribers the number of subscribed clients that are lagging behind the DTKG updates
+     * @param evictedSubscribers the total number of clients evicted because they lagged for too long
+     * @param pendingFrames the number of frames not yet sent to the clients
+     * @param pendingBytes the number of bytes not yet sent to the clients
+     */
+    public DTKGSubscriptionStatistics(
+            final int subscribers,
+            final int laggingSubscribers,
+            final long evictedSubscribers,
+            final long pendingFrames,
+            final long pendingBytes
+    ) {
+        this.subscribers = subscribers;
+        this.laggingSubscribers = laggingSubscribers;
+        this.evictedSubscribers = evictedSubscribers;
+        this.pendingFrames = pendingFrames;
+        this.pendingBytes = pendingBytes;
+    }
+
+    /**
+     * Get the number of subscribed clients.
+     * @return the number of subscribers
+     */
+    public int getSubscribers() {
+        return this.subscribers;
+    }
+
+    /**
+     * Get the number of subscribed clients that are lagging behind the DTKG updates.
+     * @return the number of lagging subscribers
+     */
+    public int getLaggingSubscribers() {
+        return this.laggingSubscribers;
+    }
+
+    /**
+     * Get the total number of clients evicted because they lagged for too long.
+     * @return the number of evicted subscribers
+     */
+    public long getEvictedSubscribers() {
+        return this.evictedSubscribers;
+    }
+
+    /**
+     * Get the number of frames not yet sent to the clients.
+     * @return the number of pending frames
+     */
+    public long getPendingFrames() {
+        return this.pendingFrames;
+    }
+
+    /**
+     * Get the number of bytes not yet sent to the clients.
+     * @return the number of pending bytes
+     */
+    public long getPendingBytes() {
+        return this.pendingBytes;
+    }
+}
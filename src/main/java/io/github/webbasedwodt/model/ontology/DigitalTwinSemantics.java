@@ -25,6 +25,7 @@ import it.wldt.core.state.DigitalTwinStateRelationship;
 import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -78,4 +79,13 @@ public interface DigitalTwinSemantics {
      * @return the list of triples, if the relationship is mapped.
      */
     Optional<List<RdfUnSubjectedTriple>> mapData(DigitalTwinStateRelationshipInstance<?> relationshipInstance);
+
+    /**
+     * Get the prefixes used to abbreviate the URIs of the ontologies of the Digital Twin in the serialized DTKG.
+     * The WoDT vocabulary is always abbreviated, with the {@code wodt} prefix.
+     * @return the map from each prefix to its namespace URI.
+     */
+    default Map<String, String> getPrefixes() {
+        return Map.of();
+    }
 }
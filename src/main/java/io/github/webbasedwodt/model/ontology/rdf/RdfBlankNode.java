@@ -19,6 +19,7 @@ package io.github.webbasedwodt.model.ontology.rdf;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -80,4 +81,21 @@ public final class RdfBlankNode implements RdfResource {
     public Optional<URI> getUri() {
         return Optional.empty();
     }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || this.getClass() != other.getClass()) {
+            return false;
+        }
+        final RdfBlankNode blankNode = (RdfBlankNode) other;
+        return Objects.equals(this.blankNodeId, blankNode.blankNodeId) && this.tripleList.equals(blankNode.tripleList);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.blankNodeId, this.tripleList);
+    }
 }
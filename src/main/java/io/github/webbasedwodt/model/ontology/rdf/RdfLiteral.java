@@ -16,6 +16,8 @@
 
 package io.github.webbasedwodt.model.ontology.rdf;
 
+import java.util.Objects;
+
 /**
  * It models the concept of RDF Literal.
  * @param <T> the type of the literal.
@@ -38,4 +40,21 @@ public final class RdfLiteral<T> implements RdfNode {
     public T getValue() {
         return this.value;
     }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || this.getClass() != other.getClass()) {
+            return false;
+        }
+        final RdfLiteral<?> literal = (RdfLiteral<?>) other;
+        return Objects.equals(this.value, literal.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.value);
+    }
 }
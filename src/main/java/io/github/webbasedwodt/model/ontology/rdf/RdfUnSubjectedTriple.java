@@ -16,6 +16,8 @@
 
 package io.github.webbasedwodt.model.ontology.rdf;
 
+import java.util.Objects;
+
 /**
  * This class represent a triple without the subject.
  * It can be useful when we want to represent triples for an external defined subject.
@@ -49,4 +51,22 @@ public final class RdfUnSubjectedTriple {
     public RdfNode getTripleObject() {
         return this.tripleObject;
     }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || this.getClass() != other.getClass()) {
+            return false;
+        }
+        final RdfUnSubjectedTriple triple = (RdfUnSubjectedTriple) other;
+        return Objects.equals(this.triplePredicate, triple.triplePredicate)
+            && Objects.equals(this.tripleObject, triple.tripleObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.triplePredicate, this.tripleObject);
+    }
 }
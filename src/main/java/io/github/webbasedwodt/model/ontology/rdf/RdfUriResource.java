@@ -17,10 +17,12 @@
 package io.github.webbasedwodt.model.ontology.rdf;
 
 import java.net.URI;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * It represents an RDF Resource that has a URI, e.g., class, property, individual, and so on.
+ * Resources are equal if they are of the same kind and they have the same URI.
  */
 public class RdfUriResource implements RdfResource {
     private final URI resourceUri;
@@ -37,4 +39,31 @@ public class RdfUriResource implements RdfResource {
     public final Optional<URI> getUri() {
         return Optional.of(this.resourceUri);
     }
+
+    /**
+     * Check if another object is a resource of the same kind with the same URI.
+     * Subclasses with additional state should override it, together with {@link #hashCode()}.
+     * @param other the other object
+     * @return true if the resources are equal, false otherwise
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || this.getClass() != other.getClass()) {
+            return false;
+        }
+        final RdfUriResource resource = (RdfUriResource) other;
+        return Objects.equals(this.resourceUri, resource.resourceUri);
+    }
+
+    /**
+     * Compute the hash code of the resource, consistently with {@link #equals(Object)}.
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.getClass(), this.resourceUri);
+    }
 }
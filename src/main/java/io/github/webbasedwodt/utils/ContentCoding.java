@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP content codings used to compress the served representations.
+ */
+public enum ContentCoding {
+    /**
+     * The gzip coding.
+     */
+    GZIP("gzip") {
+        @Override
+        public DeflaterOutputStream compressingStream(final OutputStream output) throws IOException {
+            return new GZIPOutputStream(output);
+        }
+    },
+
+    /**
+     * The deflate coding, i.e., the zlib format.
+     */
+    DEFLATE("deflate") {
+        @Override
+        public DeflaterOutputStream compressingStream(final OutputStream output) {
+            return new DeflaterOutputStream(output);
+        }
+    };
+
+    private final String name;
+
+    ContentCoding(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the name of the coding, as used in the HTTP headers.
+     * @return the name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Obtain a stream that compresses what is written to it with this coding.
+     * The compression is completed by finishing or closing the returned stream.
+     * @param output the stream where to write the compressed content
+     * @return the compressing stream
+     * @throws IOException if the compressing stream cannot be created
+     */
+    public abstract DeflaterOutputStream compressingStream(OutputStream output) throws IOException;
+
+    /**
+     * Compress a content with this coding.
+     * @param content the content
+     * @return the compressed content
+     */
+    public byte[] compress(final byte[] content) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (DeflaterOutputStream compressingStream = this.compressingStream(output)) {
+            compressingStream.write(content);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Obtain the coding with a specific name.
+     * @param name the name, case-insensitive
+     * @return the coding, or an empty optional if there is no supported coding with that name
+     */
+    public static Optional<ContentCoding> fromName(final String name) {
+        return Arrays.stream(values()).filter(coding -> coding.name.equalsIgnoreCase(name.trim())).findFirst();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link CoalescingCommitScheduler}.
+ */
+class CoalescingCommitSchedulerTest {
+    private static final Duration MIN_INTERVAL = Duration.ofMillis(100);
+    private final List<Runnable> scheduledCommits = new ArrayList<>();
+    private final List<Long> scheduledDelays = new ArrayList<>();
+    private int commits;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        this.scheduledCommits.clear();
+        this.scheduledDelays.clear();
+        this.commits = 0;
+        this.now = 0;
+    }
+
+    @Test
+    @DisplayName("Every request should be committed immediately when there is no minimum interval")
+    void testNoInterval() {
+        final CoalescingCommitScheduler scheduler = this.createScheduler(Duration.ZERO);
+        scheduler.requestCommit();
+        scheduler.requestCommit();
+        assertEquals(2, this.commits);
+        assertTrue(this.scheduledCommits.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Requests within the minimum interval should be coalesced into a single delayed commit")
+    void testCoalescing() {
+        final CoalescingCommitScheduler scheduler = this.createScheduler(MIN_INTERVAL);
+        scheduler.requestCommit();
+        assertEquals(1, this.commits);
+        this.now = MIN_INTERVAL.toNanos() / 4;
+        scheduler.requestCommit();
+        scheduler.requestCommit();
+        scheduler.requestCommit();
+        assertEquals(1, this.commits);
+        assertEquals(1, this.scheduledCommits.size());
+        assertEquals(MIN_INTERVAL.toNanos() * 3 / 4, this.scheduledDelays.get(0).longValue());
+        this.now = MIN_INTERVAL.toNanos();
+        this.scheduledCommits.remove(0).run();
+        assertEquals(2, this.commits);
+        this.now = MIN_INTERVAL.toNanos() * 2;
+        scheduler.requestCommit();
+        assertEquals(3, this.commits);
+    }
+
+    @Test
+    @DisplayName("A flush should commit immediately")
+    void testFlush() {
+        final CoalescingCommitScheduler scheduler = this.createScheduler(MIN_INTERVAL);
+        scheduler.requestCommit();
+        scheduler.flush();
+        assertEquals(2, this.commits);
+    }
+
+    @Test
+    @DisplayName("A flush should replace the scheduled commit, even if it never runs")
+    void testFlushScheduledCommit() {
+        final CoalescingCommitScheduler scheduler = this.createScheduler(MIN_INTERVAL);
+        scheduler.requestCommit();
+        scheduler.requestCommit();
+        assertEquals(1, this.scheduledCommits.size());
+        scheduler.flush();
+        assertEquals(2, this.commits);
+        // The scheduled commit is cancelled, as when its executor is shut down.
+        this.scheduledCommits.clear();
+        this.now = MIN_INTERVAL.toNanos();
+        scheduler.requestCommit();
+        assertEquals(3, this.commits);
+    }
+
+    private CoalescingCommitScheduler createScheduler(final Duration minInterval) {
+        return new CoalescingCommitScheduler(
+            () -> this.commits++,
+            minInterval,
+            (commit, delay) -> {
+                this.scheduledCommits.add(commit);
+                this.scheduledDelays.add(delay);
+            },
+            () -> this.now
+        );
+    }
+}
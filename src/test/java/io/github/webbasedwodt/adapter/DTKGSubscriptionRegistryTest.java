@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+import io.github.webbasedwodt.model.dtkg.DTKGFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link DTKGSubscriptionRegistry}.
+ */
+class DTKGSubscriptionRegistryTest {
+    private static final String ILLUMINANCE_TAG = "https://purl.org/onto/Illuminance";
+    private final Map<String, List<String>> sentMessages = new HashMap<>();
+    private DTKGSubscriptionRegistry<String> registry;
+
+    @BeforeEach
+    void setUp() {
+        this.sentMessages.clear();
+        this.registry = new DTKGSubscriptionRegistry<>();
+        this.register("all", Optional.empty());
+        this.register("luminosity", Optional.of(new DTKGFilter(Set.of("luminosity"), Set.of())));
+        this.register("illuminance", Optional.of(new DTKGFilter(Set.of(), Set.of(ILLUMINANCE_TAG))));
+    }
+
+    @Test
+    @DisplayName("A delta should reach only the subscribers of the changed properties, restricted to them")
+    void testFilteredPublication() {
+        this.registry.publish(new DTKGDelta(
+            1,
+            0,
+            "TX .\nA <a> <b> \"luminosity\" .\nA <a> <b> <c> .\nTC .\n",
+            Map.of("luminosity", "A <a> <b> \"luminosity\" .\n"),
+            Map.of()
+        ));
+        assertEquals(1, this.sentMessages.get("all").size());
+        assertTrue(this.sentMessages.get("all").get(0).contains("<c>"));
+        assertEquals(1, this.sentMessages.get("luminosity").size());
+        assertTrue(this.sentMessages.get("luminosity").get(0).contains("\"luminosity\""));
+        assertFalse(this.sentMessages.get("luminosity").get(0).contains("<c>"));
+        assertTrue(this.sentMessages.get("illuminance").isEmpty());
+    }
+
+    @Test
+    @DisplayName("A delta should reach the subscribers of the domain tags of the changed properties")
+    void testDomainTagPublication() {
+        this.registry.publish(new DTKGDelta(
+            1,
+            0,
+            "TX .\nA <a> <b> \"illuminance\" .\nTC .\n",
+            Map.of("illuminance", "A <a> <b> \"illuminance\" .\n"),
+            Map.of("illuminance", ILLUMINANCE_TAG)
+        ));
+        assertEquals(1, this.sentMessages.get("illuminance").size());
+        assertTrue(this.sentMessages.get("luminosity").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Unregistered subscribers should not receive deltas")
+    void testUnregister() {
+        this.registry.unregister("luminosity");
+        this.registry.publish(new DTKGDelta(1, 0, "TX .\nTC .\n", Map.of("luminosity", ""), Map.of()));
+        assertTrue(this.sentMessages.get("luminosity").isEmpty());
+        assertEquals(2, this.registry.getStatistics().getSubscribers());
+    }
+
+    private void register(final String key, final Optional<DTKGFilter> filter) {
+        final List<String> messages = new ArrayList<>();
+        this.sentMessages.put(key, messages);
+        final DTKGWebSocketSubscriber subscriber = new DTKGWebSocketSubscriber(
+            new DTKGWebSocketSubscriber.MessageChannel() {
+                @Override
+                public void send(final String message, final Runnable onSuccess, final Consumer<Throwable> onFailure) {
+                    messages.add(message);
+                    onSuccess.run();
+                }
+
+                @Override
+                public void close(final String reason) {
+                    // Nothing to close.
+                }
+            },
+            Long.MAX_VALUE,
+            Integer.MAX_VALUE,
+            Duration.ofSeconds(1),
+            (check, delay) -> { },
+            System::nanoTime
+        );
+        subscriber.startFromVersion(0, List.of());
+        this.registry.register(key, subscriber, filter);
+    }
+}
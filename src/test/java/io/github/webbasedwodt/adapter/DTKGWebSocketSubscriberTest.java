@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link DTKGWebSocketSubscriber}.
+ */
+class DTKGWebSocketSubscriberTest {
+    private static final int MAX_PENDING_FRAMES = 2;
+    private static final long MAX_PENDING_BYTES = 1024;
+    private static final Duration LAG_TIMEOUT = Duration.ofSeconds(1);
+    private final List<String> sentMessages = new ArrayList<>();
+    private final List<Runnable> pendingWrites = new ArrayList<>();
+    private final List<Runnable> scheduledChecks = new ArrayList<>();
+    private String closeReason;
+    private long now;
+    private DTKGWebSocketSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        this.sentMessages.clear();
+        this.pendingWrites.clear();
+        this.scheduledChecks.clear();
+        this.closeReason = null;
+        this.now = 0;
+        this.subscriber = this.createSubscriber(false);
+        this.subscriber.startFromVersion(0, List.of());
+    }
+
+    @Test
+    @DisplayName("Deltas should be conflated while the subscriber exceeds the high-water mark")
+    void testConflation() {
+        this.sendDeltas(1, 4);
+        assertEquals(MAX_PENDING_FRAMES, this.sentMessages.size());
+        assertTrue(this.subscriber.isLagging());
+        this.completeWrite();
+        assertFalse(this.subscriber.isLagging());
+        final String conflatedPatch = this.sentMessages.get(this.sentMessages.size() - 1);
+        assertTrue(conflatedPatch.startsWith("H version \"4\" .\nH previous \"2\" ."));
+        assertTrue(conflatedPatch.contains("delta-3") && conflatedPatch.contains("delta-4"));
+    }
+
+    @Test
+    @DisplayName("A subscriber that lags longer than the timeout should be evicted")
+    void testEviction() {
+        this.sendDeltas(1, 3);
+        this.now = LAG_TIMEOUT.toNanos() / 2;
+        assertTrue(this.subscriber.sendDelta(this.delta(4), 1));
+        assertNull(this.closeReason);
+        this.now = LAG_TIMEOUT.toNanos() + 1;
+        assertFalse(this.subscriber.sendDelta(this.delta(5), 1));
+        assertNotNull(this.closeReason);
+        assertFalse(this.subscriber.isLagging());
+    }
+
+    @Test
+    @DisplayName("A subscriber that lags while no delta is notified should be evicted when the timeout expires")
+    void testIdleEviction() {
+        this.sendDeltas(1, 3);
+        assertEquals(1, this.scheduledChecks.size());
+        this.now = LAG_TIMEOUT.toNanos();
+        this.scheduledChecks.remove(0).run();
+        assertNotNull(this.closeReason);
+        assertTrue(this.subscriber.isEvicted());
+        assertFalse(this.subscriber.sendDelta(this.delta(4), 1));
+    }
+
+    @Test
+    @DisplayName("A subscriber that catches up before the timeout should not be evicted")
+    void testRecoveryBeforeTimeout() {
+        this.sendDeltas(1, 3);
+        this.completeWrite();
+        this.now = LAG_TIMEOUT.toNanos();
+        this.scheduledChecks.remove(0).run();
+        assertNull(this.closeReason);
+        assertFalse(this.subscriber.isEvicted());
+    }
+
+    @Test
+    @DisplayName("Pending frames and bytes should be tracked until the writes complete")
+    void testPendingAccounting() {
+        this.sendDeltas(1, 2);
+        assertEquals(2, this.subscriber.getPendingFrames());
+        this.completeWrite();
+        this.completeWrite();
+        assertEquals(0, this.subscriber.getPendingFrames());
+        assertEquals(0, this.subscriber.getPendingBytes());
+    }
+
+    @Test
+    @DisplayName("A subscription should start with the missing deltas, skipping the ones the client already knows")
+    void testStartFromVersion() {
+        this.subscriber = this.createSubscriber(true);
+        this.sendDeltas(3, 4);
+        assertTrue(this.sentMessages.isEmpty());
+        this.subscriber.startFromVersion(1, List.of(this.delta(2), this.delta(3)));
+        assertEquals(
+            List.of(this.delta(2).getRdfPatch(), this.delta(3).getRdfPatch(), this.delta(4).getRdfPatch()),
+            this.sentMessages
+        );
+    }
+
+    @Test
+    @DisplayName("A subscription started from a snapshot should skip the deltas included in the snapshot")
+    void testStartFromSnapshot() {
+        this.subscriber = this.createSubscriber(true);
+        this.sendDeltas(2, 3);
+        this.subscriber.startFromSnapshot("snapshot", 2);
+        this.sendDeltas(3, 4);
+        assertEquals(List.of("snapshot", this.delta(3).getRdfPatch(), this.delta(4).getRdfPatch()), this.sentMessages);
+    }
+
+    @Test
+    @DisplayName("A resync should replace the conflated deltas with the snapshot and skip the deltas it includes")
+    void testResync() {
+        this.sendDeltas(1, 3);
+        assertTrue(this.subscriber.isLagging());
+        this.subscriber.resync("snapshot", 5);
+        assertFalse(this.subscriber.isLagging());
+        assertEquals("snapshot", this.sentMessages.get(this.sentMessages.size() - 1));
+        this.completeWrite();
+        this.completeWrite();
+        this.completeWrite();
+        this.sendDeltas(5, 6);
+        assertEquals(List.of(this.delta(1).getRdfPatch(), this.delta(2).getRdfPatch(), "snapshot",
+            this.delta(6).getRdfPatch()), this.sentMessages);
+    }
+
+    @Test
+    @DisplayName("A resync before the subscription starts should be sent after the start, unless already outdated")
+    void testResyncBeforeStart() {
+        this.subscriber = this.createSubscriber(true);
+        this.sendDeltas(3, 3);
+        this.subscriber.resync("resync", 5);
+        this.sendDeltas(6, 6);
+        this.subscriber.startFromSnapshot("snapshot", 2);
+        assertEquals(List.of("snapshot", "resync", this.delta(6).getRdfPatch()), this.sentMessages);
+        this.sentMessages.clear();
+        this.subscriber = this.createSubscriber(true);
+        this.subscriber.resync("resync", 5);
+        this.subscriber.startFromSnapshot("snapshot", 5);
+        assertEquals(List.of("snapshot"), this.sentMessages);
+    }
+
+    @Test
+    @DisplayName("The encoded length should match the UTF-8 encoding")
+    void testEncodedLength() {
+        final String message = "a\u00e8\u20ac\uD83D\uDE00";
+        assertEquals(message.getBytes(StandardCharsets.UTF_8).length, DTKGWebSocketSubscriber.encodedLength(message));
+    }
+
+    private DTKGWebSocketSubscriber createSubscriber(final boolean immediateWrites) {
+        return new DTKGWebSocketSubscriber(
+            new DTKGWebSocketSubscriber.MessageChannel() {
+                @Override
+                public void send(final String message, final Runnable onSuccess, final Consumer<Throwable> onFailure) {
+                    sentMessages.add(message);
+                    if (immediateWrites) {
+                        onSuccess.run();
+                    } else {
+                        pendingWrites.add(onSuccess);
+                    }
+                }
+
+                @Override
+                public void close(final String reason) {
+                    closeReason = reason;
+                }
+            },
+            MAX_PENDING_BYTES,
+            MAX_PENDING_FRAMES,
+            LAG_TIMEOUT,
+            (check, delay) -> {
+                assertEquals(LAG_TIMEOUT.toNanos(), delay.longValue());
+                this.scheduledChecks.add(check);
+            },
+            () -> this.now
+        );
+    }
+
+    private void sendDeltas(final int from, final int to) {
+        for (int version = from; version <= to; version++) {
+            final DTKGDelta delta = this.delta(version);
+            this.subscriber.sendDelta(delta, DTKGWebSocketSubscriber.encodedLength(delta.getRdfPatch()));
+        }
+    }
+
+    private DTKGDelta delta(final int version) {
+        return new DTKGDelta(version, version - 1, "delta-" + version + "\n");
+    }
+
+    private void completeWrite() {
+        this.pendingWrites.remove(0).run();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.shared.PrefixMapping;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link EncodedTripleSet}.
+ */
+class EncodedTripleSetTest {
+    private static final int OPERATIONS = 5000;
+    private static final int SUBJECTS = 20;
+    private static final int PREDICATES = 3;
+    private static final int OBJECTS = 50;
+    private static final long SEED = 42;
+    private TermDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        this.dictionary = new TermDictionary();
+    }
+
+    @Test
+    @DisplayName("A set should behave like a mutable set under random additions and removals")
+    void testRandomOperations() {
+        final Random random = new Random(SEED);
+        final Set<Triple> expected = new HashSet<>();
+        final EncodedTripleSet set = this.randomSet(random, expected);
+        assertEquals(expected.size(), set.size());
+        final Set<Triple> triples = new HashSet<>();
+        set.iterator().forEachRemaining(triples::add);
+        assertEquals(expected, triples);
+        expected.forEach(triple -> assertTrue(set.contains(triple)));
+        assertFalse(set.contains(triple(SUBJECTS, 0, 0)));
+    }
+
+    @Test
+    @DisplayName("The triples that match a pattern should be found whatever nodes it binds")
+    void testFind() {
+        final Set<Triple> triples = new HashSet<>();
+        final EncodedTripleSet set = this.randomSet(new Random(SEED), triples);
+        final Triple sample = triples.iterator().next();
+        final List<Node> subjects = List.of(Node.ANY, sample.getSubject(), triple(SUBJECTS, 0, 0).getSubject());
+        final List<Node> predicates = List.of(Node.ANY, sample.getPredicate());
+        final List<Node> objects = List.of(Node.ANY, sample.getObject());
+        for (final Node subject : subjects) {
+            for (final Node predicate : predicates) {
+                for (final Node object : objects) {
+                    final Triple pattern = Triple.create(subject, predicate, object);
+                    final Set<Triple> expected = new HashSet<>();
+                    triples.stream().filter(pattern::matches).forEach(expected::add);
+                    final Set<Triple> found = new HashSet<>();
+                    set.find(pattern).forEachRemaining(found::add);
+                    assertEquals(expected, found, pattern.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A list of triples should be stored as identifiers and give back the same triples")
+    void testToList() {
+        final List<Triple> triples = List.of(triple(0, 0, 0), triple(1, 2, 3), triple(0, 0, 0));
+        final EncodedTripleSet set = EncodedTripleSet.empty(this.dictionary);
+        final List<List<Triple>> encodedTriples = new ArrayList<>();
+        this.dictionary.write(() -> encodedTriples.add(set.toList(triples)));
+        assertEquals(triples, encodedTriples.get(0));
+        final Set<Integer> identifiers = new HashSet<>();
+        set.forEachTermIdentifier(encodedTriples.get(0), identifiers::add);
+        assertEquals(6, identifiers.size());
+    }
+
+    @Test
+    @DisplayName("A set should be written as N-Triples and Turtle that parse to the same triples")
+    void testWrite() throws IOException {
+        final Set<Triple> triples = new HashSet<>();
+        EncodedTripleSet set = this.randomSet(new Random(SEED), triples);
+        final Triple literalTriple = Triple.create(
+            triple(0, 0, 0).getSubject(),
+            triple(0, 0, 0).getPredicate(),
+            NodeFactory.createLiteral("a \"quoted\" value")
+        );
+        final EncodedTripleSet[] literalSet = new EncodedTripleSet[1];
+        this.dictionary.write(() -> literalSet[0] = set.plus(literalTriple));
+        set = literalSet[0];
+        triples.add(literalTriple);
+        final Graph expected = ModelFactory.createDefaultModel().getGraph();
+        triples.forEach(expected::add);
+        final PrefixMapping prefixes = PrefixMapping.Factory.create()
+            .setNsPrefix("ex", "http://example.com/")
+            .setNsPrefix("subject", "http://example.com/subject/");
+        final StringBuilder nTriples = new StringBuilder();
+        assertTrue(set.write(DTKGFormat.N_TRIPLES, prefixes, nTriples));
+        assertTrue(expected.isIsomorphicWith(parse(nTriples.toString(), Lang.NTRIPLES).getGraph()));
+        final StringBuilder turtle = new StringBuilder();
+        assertTrue(set.write(DTKGFormat.TURTLE, prefixes, turtle));
+        assertTrue(expected.isIsomorphicWith(parse(turtle.toString(), Lang.TTL).getGraph()));
+        assertTrue(turtle.toString().contains("subject:0"));
+        assertFalse(set.write(DTKGFormat.JSON_LD, prefixes, new StringBuilder()));
+    }
+
+    private EncodedTripleSet randomSet(final Random random, final Set<Triple> expected) {
+        final EncodedTripleSet[] set = {EncodedTripleSet.empty(this.dictionary)};
+        this.dictionary.write(() -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                final Triple triple = triple(
+                    random.nextInt(SUBJECTS),
+                    random.nextInt(PREDICATES),
+                    random.nextInt(OBJECTS)
+                );
+                if (random.nextInt(3) > 0) {
+                    expected.add(triple);
+                    set[0] = set[0].plus(triple);
+                } else {
+                    expected.remove(triple);
+                    set[0] = set[0].minus(triple);
+                }
+            }
+        });
+        return set[0];
+    }
+
+    private static Model parse(final String dtkg, final Lang lang) {
+        final Model model = ModelFactory.createDefaultModel();
+        RDFParser.fromString(dtkg).lang(lang).parse(model);
+        return model;
+    }
+
+    private static Triple triple(final int subject, final int predicate, final int object) {
+        return Triple.create(
+            NodeFactory.createURI("http://example.com/subject/" + subject),
+            NodeFactory.createURI("http://example.com/predicate/" + predicate),
+            NodeFactory.createURI("http://example.com/object/" + object)
+        );
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link IntTripleTable}.
+ */
+class IntTripleTableTest {
+    private static final int OPERATIONS = 20_000;
+    private static final int IDENTIFIERS = 12;
+    private static final long SEED = 42;
+    private static final Comparator<List<Integer>> TRIPLE_ORDER = Comparator
+        .<List<Integer>>comparingInt(triple -> triple.get(0))
+        .thenComparingInt(triple -> triple.get(1))
+        .thenComparingInt(triple -> triple.get(2));
+
+    @Test
+    @DisplayName("A table should behave like a sorted set under random additions and removals")
+    void testRandomOperations() {
+        final Random random = new Random(SEED);
+        final TreeSet<List<Integer>> expected = new TreeSet<>(TRIPLE_ORDER);
+        IntTripleTable table = IntTripleTable.empty();
+        for (int i = 0; i < OPERATIONS; i++) {
+            final int first = random.nextInt(IDENTIFIERS);
+            final int second = random.nextInt(IDENTIFIERS);
+            final int third = random.nextInt(IDENTIFIERS);
+            // Additions prevail, so that the chunks are split.
+            if (random.nextInt(3) > 0) {
+                expected.add(List.of(first, second, third));
+                table = table.plus(first, second, third);
+            } else {
+                expected.remove(List.of(first, second, third));
+                table = table.minus(first, second, third);
+            }
+            assertEquals(expected.size(), table.size());
+        }
+        assertTrue(table.size() > IntTripleTable.CHUNK_TRIPLES);
+        assertEquals(new ArrayList<>(expected), toList(table.find()));
+        for (final List<Integer> triple : expected) {
+            assertTrue(table.contains(triple.get(0), triple.get(1), triple.get(2)));
+        }
+    }
+
+    @Test
+    @DisplayName("The triples that start with some identifiers should be found in order")
+    void testFind() {
+        final Random random = new Random(SEED);
+        final TreeSet<List<Integer>> triples = new TreeSet<>(TRIPLE_ORDER);
+        IntTripleTable table = IntTripleTable.empty();
+        for (int i = 0; i < OPERATIONS; i++) {
+            final int first = random.nextInt(IDENTIFIERS);
+            final int second = random.nextInt(IDENTIFIERS);
+            final int third = random.nextInt(IDENTIFIERS);
+            triples.add(List.of(first, second, third));
+            table = table.plus(first, second, third);
+        }
+        for (int first = 0; first <= IDENTIFIERS; first++) {
+            final int prefixFirst = first;
+            assertEquals(
+                triples.stream().filter(triple -> triple.get(0) == prefixFirst).collect(Collectors.toList()),
+                toList(table.find(first))
+            );
+            for (int second = 0; second <= IDENTIFIERS; second++) {
+                final int prefixSecond = second;
+                assertEquals(
+                    triples.stream()
+                        .filter(triple -> triple.get(0) == prefixFirst && triple.get(1) == prefixSecond)
+                        .collect(Collectors.toList()),
+                    toList(table.find(first, second))
+                );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Adding a present triple or removing an absent one should return the same table")
+    void testUnchangedTable() {
+        final IntTripleTable table = IntTripleTable.empty().plus(0, 1, 2);
+        assertSame(table, table.plus(0, 1, 2));
+        assertSame(table, table.minus(0, 1, 3));
+        assertFalse(table.minus(0, 1, 2).contains(0, 1, 2));
+        assertEquals(0, table.minus(0, 1, 2).size());
+        assertTrue(table.contains(0, 1, 2));
+    }
+
+    private static List<List<Integer>> toList(final IntTripleTable.Cursor cursor) {
+        final List<List<Integer>> triples = new ArrayList<>();
+        while (cursor.hasNext()) {
+            cursor.next();
+            triples.add(List.of(cursor.getFirst(), cursor.getSecond(), cursor.getThird()));
+        }
+        return triples;
+    }
+}
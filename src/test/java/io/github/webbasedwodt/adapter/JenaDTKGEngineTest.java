@@ -16,21 +16,44 @@
 
 package io.github.webbasedwodt.adapter;
 
+import io.github.webbasedwodt.application.component.DTKGUpdateBatch;
 import io.github.webbasedwodt.integration.wldt.LampDTSemantics;
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+import io.github.webbasedwodt.model.dtkg.DTKGFilter;
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
+import io.github.webbasedwodt.model.dtkg.DTKGSnapshot;
 import io.github.webbasedwodt.utils.TestingUtils;
 import it.wldt.core.state.DigitalTwinStateAction;
 import it.wldt.core.state.DigitalTwinStateProperty;
 import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
 import it.wldt.exception.WldtDigitalTwinStateException;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RDFWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -75,10 +98,7 @@ class JenaDTKGEngineTest {
     @Test
     @DisplayName("It should be possible to obtain the turtle representation of the Digital Twin")
     void testDTKGCreation() {
-        assertEquals(
-            TestingUtils.readResourceFile("DTKGWithRelationshipsTurtle.ttl").orElse(""),
-            this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph()
-        );
+        assertDTKG("DTKGWithRelationshipsTurtle.ttl", this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
     }
 
     @Test
@@ -90,10 +110,7 @@ class JenaDTKGEngineTest {
         for (int i = 0; i < modifiedProperties.size(); i++) {
             this.dtkgEngine.updateDigitalTwinProperty(properties.get(i), modifiedProperties.get(i));
         }
-        assertEquals(
-                TestingUtils.readResourceFile("DTKGWithRelationshipsTurtle.ttl").orElse(""),
-                this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph()
-        );
+        assertDTKG("DTKGWithRelationshipsTurtle.ttl", this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
     }
 
     @Test
@@ -106,10 +123,102 @@ class JenaDTKGEngineTest {
         for (int i = 0; i < modifiedProperties.size(); i++) {
             this.dtkgEngine.updateDigitalTwinProperty(modifiedProperties.get(i), properties.get(i));
         }
-        assertEquals(
-                TestingUtils.readResourceFile("DTKGWithRelationshipsTurtleUpdated.ttl").orElse(""),
-                this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph()
-        );
+        assertDTKG("DTKGWithRelationshipsTurtleUpdated.ttl", this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+    }
+
+    @Test
+    @DisplayName("An update should replace the triples inserted for the property, without mapping the old property")
+    void testDTKGPropertyUpdateWithoutOldMapping() throws WldtDigitalTwinStateException {
+        for (int i = 0; i < modifiedProperties.size(); i++) {
+            this.dtkgEngine.updateDigitalTwinProperty(
+                modifiedProperties.get(i),
+                new DigitalTwinStateProperty<>(modifiedProperties.get(i).getKey(), "not-mappable")
+            );
+        }
+        for (int i = 0; i < modifiedProperties.size(); i++) {
+            this.dtkgEngine.updateDigitalTwinProperty(properties.get(i), properties.get(i));
+        }
+        assertDTKG("DTKGWithRelationshipsTurtle.ttl", this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+        assertTrue(this.dtkgEngine.removeRelationship(this.relationships.get(0)));
+        assertFalse(this.dtkgEngine.removeRelationship(this.relationships.get(0)));
+    }
+
+    @Test
+    @DisplayName("Removing a property should remove also the blank nodes of its value")
+    void testDTKGPropertyDeletion() {
+        assertTrue(this.dtkgEngine.removeProperty(this.properties.get(0)));
+        assertFalse(this.dtkgEngine.removeProperty(this.properties.get(0)));
+        final String dtkg = this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph();
+        assertFalse(dtkg.contains("LuminosityFlux"));
+        assertFalse(dtkg.contains("unit/LM"));
+        assertTrue(dtkg.contains("Illuminance"));
+    }
+
+    @Test
+    @DisplayName("A batch of changes should be applied all at once")
+    void testDTKGUpdateBatch() {
+        final long version = this.dtkgEngine.getCurrentVersion();
+        final DTKGUpdateBatch batch = this.dtkgEngine.beginUpdateBatch();
+        for (int i = 0; i < modifiedRelationships.size(); i++) {
+            batch.removeRelationship(relationships.get(i)).addRelationship(modifiedRelationships.get(i));
+        }
+        for (int i = 0; i < modifiedProperties.size(); i++) {
+            batch.updateDigitalTwinProperty(modifiedProperties.get(i), properties.get(i));
+        }
+        assertEquals(version, this.dtkgEngine.getCurrentVersion());
+        batch.apply();
+        assertEquals(version + 1, this.dtkgEngine.getCurrentVersion());
+        assertDTKG("DTKGWithRelationshipsTurtleUpdated.ttl", this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+    }
+
+    @Test
+    @DisplayName("The changes of a batch mapped in parallel should be applied in order, or not at all")
+    void testDTKGParallelUpdateBatch() {
+        final ForkJoinPool mappingExecutor = new ForkJoinPool(2);
+        try {
+            this.dtkgEngine = JenaDTKGEngine.builder(URI.create("http://example.com/dt"), new LampDTSemantics())
+                .withMappingExecutor(mappingExecutor)
+                .build();
+            final DTKGUpdateBatch batch = this.dtkgEngine.beginUpdateBatch();
+            this.properties.forEach(batch::addDigitalTwinProperty);
+            this.relationships.forEach(batch::addRelationship);
+            this.actionsList.forEach(batch::addAction);
+            final long version = this.dtkgEngine.getCurrentVersion();
+            assertThrows(IllegalArgumentException.class, () -> this.dtkgEngine.beginUpdateBatch()
+                .removeAction(this.actionsList.get(0))
+                .addRelationship(new DigitalTwinStateRelationshipInstance<>("not-existent-relationship", "target", ""))
+                .apply()
+            );
+            assertEquals(version, this.dtkgEngine.getCurrentVersion());
+            batch.apply();
+            assertDTKG("DTKGWithRelationshipsTurtle.ttl", this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+        } finally {
+            mappingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("A batch that fails while its changes are applied should leave the DTKG and the transaction unchanged")
+    void testDTKGFailedUpdateBatch() {
+        final List<DTKGDelta> deltas = new ArrayList<>();
+        this.dtkgEngine.addDTKGObserver(deltas::add);
+        this.dtkgEngine.commitUpdateTransaction();
+        final long version = this.dtkgEngine.getCurrentVersion();
+        final String dtkg = this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph();
+        final DTKGUpdateBatch batch = this.dtkgEngine.beginUpdateBatch()
+            .removeRelationship(this.relationships.get(0))
+            .updateDigitalTwinProperty(this.modifiedProperties.get(1), this.properties.get(1))
+            .addDigitalTwinProperty(this.properties.get(0));
+        assertThrows(IllegalStateException.class, batch::apply);
+        assertEquals(version, this.dtkgEngine.getCurrentVersion());
+        assertEquals(dtkg, this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+        this.dtkgEngine.commitUpdateTransaction();
+        assertEquals(1, deltas.size());
+        this.dtkgEngine.updateDigitalTwinProperty(this.modifiedProperties.get(0), this.properties.get(0));
+        this.dtkgEngine.commitUpdateTransaction();
+        assertEquals(2, deltas.size());
+        assertEquals(version, deltas.get(1).getPreviousVersion());
+        assertFalse(deltas.get(1).getRdfPatch().contains("https://brickschema.org/schema/Brick#hasLocation"));
     }
 
     @Test
@@ -119,6 +228,22 @@ class JenaDTKGEngineTest {
         assertTrue(this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph().isEmpty());
     }
 
+    @Test
+    @DisplayName("After the Digital Twin is deleted, its properties should be added again from scratch")
+    void testDTKGDigitalTwinDeletionAndAddition() {
+        final List<DTKGDelta> deltas = new ArrayList<>();
+        this.dtkgEngine.addDTKGObserver(deltas::add);
+        this.dtkgEngine.commitUpdateTransaction();
+        final DTKGFilter illuminanceFilter = new DTKGFilter(Set.of(), Set.of("https://purl.org/onto/Illuminance"));
+        this.dtkgEngine.removeDigitalTwin();
+        this.dtkgEngine.commitUpdateTransaction();
+        assertTrue(deltas.get(1).filter(illuminanceFilter).orElseThrow().getRdfPatch().contains("\"50.0\""));
+        assertTrue(this.dtkgEngine.getCurrentSnapshot(illuminanceFilter).getDigitalTwinKnowledgeGraph().isEmpty());
+        this.properties.forEach(this.dtkgEngine::addDigitalTwinProperty);
+        final String snapshot = this.dtkgEngine.getCurrentSnapshot(illuminanceFilter).getDigitalTwinKnowledgeGraph();
+        assertTrue(snapshot.contains("50.0"));
+    }
+
     @Test
     @DisplayName("It should be possible to delete an existing relationship")
     void testDTKGRelationshipDeletion() {
@@ -153,9 +278,327 @@ class JenaDTKGEngineTest {
     void testDTKGActionAdditionAndDeletion() {
         this.dtkgEngine.removeAction(actionsList.get(0));
         this.dtkgEngine.addAction(actionsList.get(0));
-        assertEquals(
-                TestingUtils.readResourceFile("DTKGWithRelationshipsTurtle.ttl").orElse(""),
-                this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph()
+        assertDTKG("DTKGWithRelationshipsTurtle.ttl", this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+    }
+
+    @Test
+    @DisplayName("A commit should notify the observers only with the triples changed within the transaction")
+    void testDTKGDeltaNotification() {
+        final List<DTKGDelta> deltas = new ArrayList<>();
+        this.dtkgEngine.addDTKGObserver(deltas::add);
+        this.dtkgEngine.commitUpdateTransaction();
+        this.dtkgEngine.updateDigitalTwinProperty(modifiedProperties.get(1), properties.get(1));
+        this.dtkgEngine.commitUpdateTransaction();
+        this.dtkgEngine.commitUpdateTransaction();
+        assertEquals(2, deltas.size());
+        assertTrue(deltas.get(1).getVersion() > deltas.get(0).getVersion());
+        assertEquals(deltas.get(0).getVersion(), deltas.get(1).getPreviousVersion());
+        final String rdfPatch = deltas.get(1).getRdfPatch();
+        assertTrue(rdfPatch.contains("\"50.0\"^^<http://www.w3.org/2001/XMLSchema#double>"));
+        assertTrue(rdfPatch.contains("\"0.1\"^^<http://www.w3.org/2001/XMLSchema#double>"));
+        assertFalse(rdfPatch.contains("https://brickschema.org/schema/Brick#hasLocation"));
+    }
+
+    @Test
+    @DisplayName("An update that changes only a value should replace only the changed literal")
+    void testDTKGLiteralUpdate() {
+        final List<DTKGDelta> deltas = new ArrayList<>();
+        this.dtkgEngine.addDTKGObserver(deltas::add);
+        this.dtkgEngine.commitUpdateTransaction();
+        this.dtkgEngine.updateDigitalTwinProperty(modifiedProperties.get(0), properties.get(0));
+        this.dtkgEngine.commitUpdateTransaction();
+        final List<String> operations = deltas.get(1).getRdfPatch().lines()
+            .filter(line -> line.startsWith("A ") || line.startsWith("D "))
+            .collect(Collectors.toList());
+        assertEquals(2, operations.size());
+        assertTrue(operations.get(0).startsWith("D ") && operations.get(0).contains("\"100.0\""));
+        assertTrue(operations.get(1).startsWith("A ") && operations.get(1).contains("\"0.2\""));
+    }
+
+    @Test
+    @DisplayName("Re-applying the same values should neither change the version nor notify the observers")
+    void testDTKGUpdateWithoutChanges() {
+        final List<DTKGDelta> deltas = new ArrayList<>();
+        this.dtkgEngine.addDTKGObserver(deltas::add);
+        this.dtkgEngine.commitUpdateTransaction();
+        final DTKGSnapshot snapshot = this.dtkgEngine.getCurrentSnapshot();
+        this.properties.forEach(property -> this.dtkgEngine.updateDigitalTwinProperty(property, property));
+        this.dtkgEngine.addAction(this.actionsList.get(0));
+        this.dtkgEngine.commitUpdateTransaction();
+        assertEquals(1, deltas.size());
+        assertSame(snapshot, this.dtkgEngine.getCurrentSnapshot());
+    }
+
+    @Test
+    @DisplayName("A batch applied skipping the failed changes should apply all the other changes at once")
+    void testDTKGUpdateBatchSkippingFailedChanges() throws WldtDigitalTwinStateException {
+        final List<RuntimeException> failures = new ArrayList<>();
+        final long version = this.dtkgEngine.getCurrentVersion();
+        this.dtkgEngine.beginUpdateBatch()
+            .removeRelationship(this.relationships.get(0))
+            .addDigitalTwinProperty(new DigitalTwinStateProperty<>("not-mapped", 1))
+            .addRelationship(this.modifiedRelationships.get(0))
+            .addDigitalTwinProperty(this.properties.get(0))
+            .updateDigitalTwinProperty(this.modifiedProperties.get(0), this.properties.get(0))
+            .updateDigitalTwinProperty(this.modifiedProperties.get(1), this.properties.get(1))
+            .applySkippingFailedChanges(failures::add);
+        assertEquals(2, failures.size());
+        assertTrue(failures.get(0) instanceof IllegalArgumentException);
+        assertTrue(failures.get(1) instanceof IllegalStateException);
+        assertEquals(version + 1, this.dtkgEngine.getCurrentVersion());
+        assertDTKG("DTKGWithRelationshipsTurtleUpdated.ttl", this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+    }
+
+    @Test
+    @DisplayName("Updates coalesced in a transaction that restore the committed values should not notify the observers")
+    void testDTKGCoalescedUpdateWithoutNetChanges() {
+        final List<DTKGDelta> deltas = new ArrayList<>();
+        this.dtkgEngine.addDTKGObserver(deltas::add);
+        this.dtkgEngine.commitUpdateTransaction();
+        final String dtkg = this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph();
+        this.dtkgEngine.updateDigitalTwinProperty(this.modifiedProperties.get(0), this.properties.get(0));
+        this.dtkgEngine.updateDigitalTwinProperty(this.properties.get(0), this.modifiedProperties.get(0));
+        this.dtkgEngine.commitUpdateTransaction();
+        assertEquals(1, deltas.size());
+        assertEquals(dtkg, this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+        this.dtkgEngine.updateDigitalTwinProperty(this.modifiedProperties.get(1), this.properties.get(1));
+        this.dtkgEngine.commitUpdateTransaction();
+        assertEquals(2, deltas.size());
+        assertEquals(deltas.get(0).getVersion(), deltas.get(1).getPreviousVersion());
+        assertFalse(deltas.get(1).getRdfPatch().contains("\"100.0\""));
+    }
+
+    @Test
+    @DisplayName("A batch whose changes cancel each other out should not change the version")
+    void testDTKGUpdateBatchWithoutNetChanges() {
+        final DigitalTwinStateRelationshipInstance<?> relationship =
+            new DigitalTwinStateRelationshipInstance<>("isInRoom", "http://otherRoomDT.it", "isInRoom-otherRoomDT");
+        final long version = this.dtkgEngine.getCurrentVersion();
+        this.dtkgEngine.beginUpdateBatch().addRelationship(relationship).removeRelationship(relationship).apply();
+        assertEquals(version, this.dtkgEngine.getCurrentVersion());
+    }
+
+    @Test
+    @DisplayName("It should be possible to obtain the deltas committed after a version, while they are retained")
+    void testDTKGDeltasSince() {
+        this.dtkgEngine = JenaDTKGEngine.builder(URI.create("http://example.com/dt"), new LampDTSemantics())
+            .withDeltaLog(2)
+            .build();
+        final List<DTKGDelta> deltas = new ArrayList<>();
+        this.dtkgEngine.addDTKGObserver(deltas::add);
+        this.properties.forEach(property -> {
+            this.dtkgEngine.addDigitalTwinProperty(property);
+            this.dtkgEngine.commitUpdateTransaction();
+        });
+        this.dtkgEngine.addAction(this.actionsList.get(0));
+        this.dtkgEngine.commitUpdateTransaction();
+        assertEquals(Optional.of(deltas.subList(2, 3)), this.dtkgEngine.getDeltasSince(deltas.get(1).getVersion()));
+        assertEquals(Optional.of(deltas.subList(1, 3)), this.dtkgEngine.getDeltasSince(deltas.get(0).getVersion()));
+        assertEquals(Optional.of(List.of()), this.dtkgEngine.getDeltasSince(this.dtkgEngine.getCurrentVersion()));
+        assertTrue(this.dtkgEngine.getDeltasSince(0).isEmpty());
+        assertTrue(this.dtkgEngine.getDeltasSince(this.dtkgEngine.getCurrentVersion() + 1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Snapshots and deltas should be restricted to the properties selected by a filter")
+    void testDTKGFilter() {
+        final List<DTKGDelta> deltas = new ArrayList<>();
+        this.dtkgEngine.addDTKGObserver(deltas::add);
+        this.dtkgEngine.commitUpdateTransaction();
+        this.dtkgEngine.updateDigitalTwinProperty(modifiedProperties.get(1), properties.get(1));
+        this.dtkgEngine.commitUpdateTransaction();
+        final DTKGFilter illuminanceFilter = new DTKGFilter(Set.of(), Set.of("https://purl.org/onto/Illuminance"));
+        final DTKGFilter luminosityFilter = new DTKGFilter(Set.of("luminosity"), Set.of());
+        final String snapshot = this.dtkgEngine.getCurrentSnapshot(illuminanceFilter).getDigitalTwinKnowledgeGraph();
+        assertTrue(snapshot.contains("0.1"));
+        assertFalse(snapshot.contains("LuminosityFlux"));
+        assertFalse(snapshot.contains("hasLocation"));
+        assertTrue(deltas.get(1).filter(luminosityFilter).isEmpty());
+        assertEquals(Set.of("illuminance"), deltas.get(1).getChangedPropertyKeys());
+        final String rdfPatch = deltas.get(1).filter(illuminanceFilter).orElseThrow().getRdfPatch();
+        assertTrue(rdfPatch.contains("\"0.1\"^^<http://www.w3.org/2001/XMLSchema#double>"));
+        assertTrue(rdfPatch.contains("\"50.0\"^^<http://www.w3.org/2001/XMLSchema#double>"));
+    }
+
+    @Test
+    @DisplayName("The DTKG should be serialized only once per version")
+    void testDTKGSnapshotCaching() {
+        final DTKGSnapshot snapshot = this.dtkgEngine.getCurrentSnapshot();
+        assertSame(snapshot, this.dtkgEngine.getCurrentSnapshot());
+        this.dtkgEngine.removeAction(this.actionsList.get(0));
+        final DTKGSnapshot updatedSnapshot = this.dtkgEngine.getCurrentSnapshot();
+        assertNotSame(snapshot, updatedSnapshot);
+        assertTrue(updatedSnapshot.getVersion() > snapshot.getVersion());
+        assertFalse(updatedSnapshot.getDigitalTwinKnowledgeGraph().contains(this.actionsList.get(0).getKey()));
+    }
+
+    @Test
+    @DisplayName("The DTKG should be serialized in every format, only once per version")
+    void testDTKGSnapshotFormats() {
+        final Model dtkg = parseTurtle(this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+        for (final DTKGFormat format : DTKGFormat.values()) {
+            final DTKGSnapshot snapshot = this.dtkgEngine.getCurrentSnapshot(format);
+            assertSame(snapshot, this.dtkgEngine.getCurrentSnapshot(format));
+            assertEquals(format, snapshot.getFormat());
+            final Model parsedSnapshot = ModelFactory.createDefaultModel();
+            RDFParser.source(snapshot.asInputStream()).lang(RDFLanguages.contentTypeToLang(format.getMediaType()))
+                .parse(parsedSnapshot);
+            assertTrue(dtkg.isIsomorphicWith(parsedSnapshot));
+        }
+        assertThrows(
+            IllegalStateException.class,
+            () -> this.dtkgEngine.getCurrentSnapshot(DTKGFormat.RDF_THRIFT).getDigitalTwinKnowledgeGraph()
         );
+        this.dtkgEngine.removeDigitalTwin();
+        assertTrue(this.dtkgEngine.getCurrentSnapshot(DTKGFormat.JSON_LD).isEmpty());
+    }
+
+    @Test
+    @DisplayName("The serialized DTKG should abbreviate the URIs with the prefixes of the semantics")
+    void testDTKGPrefixes() {
+        final String dtkg = this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph();
+        assertTrue(dtkg.contains("wodt:availableActionId"));
+        assertTrue(dtkg.contains("saref:hasPropertyValue"));
+        assertFalse(dtkg.contains("<https://saref.etsi.org/core/hasPropertyValue>"));
+        assertTrue(dtkg.length() < this.dtkgEngine.getCurrentSnapshot(DTKGFormat.N_TRIPLES)
+            .getDigitalTwinKnowledgeGraph().length());
+        final DTKGFilter filter = new DTKGFilter(Set.of("illuminance"), Set.of());
+        assertTrue(this.dtkgEngine.getCurrentSnapshot(filter).getDigitalTwinKnowledgeGraph()
+            .contains("saref:hasValue"));
+    }
+
+    @Test
+    @DisplayName("The DTKG should be written to a stream, directly when it is large")
+    void testDTKGStreaming() throws IOException, WldtDigitalTwinStateException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final List<Long> versions = new ArrayList<>();
+        this.dtkgEngine.writeCurrentDigitalTwinKnowledgeGraph(DTKGFormat.TURTLE, (version, empty) -> {
+            versions.add(version);
+            return output;
+        });
+        assertEquals(List.of(this.dtkgEngine.getCurrentVersion()), versions);
+        assertEquals(this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph(), output.toString(StandardCharsets.UTF_8));
+        final DTKGUpdateBatch batch = this.dtkgEngine.beginUpdateBatch();
+        for (int i = 0; i < JenaDTKGEngine.STREAMING_THRESHOLD; i++) {
+            batch.addRelationship(
+                new DigitalTwinStateRelationshipInstance<>("isInRoom", "http://room" + i + ".it", "isInRoom-" + i)
+            );
+        }
+        batch.apply();
+        final ByteArrayOutputStream streamedOutput = new ByteArrayOutputStream();
+        this.dtkgEngine.writeCurrentDigitalTwinKnowledgeGraph(DTKGFormat.N_TRIPLES, (version, empty) -> {
+            assertFalse(empty);
+            return streamedOutput;
+        });
+        final Model streamedDTKG = ModelFactory.createDefaultModel();
+        RDFParser.fromString(streamedOutput.toString(StandardCharsets.UTF_8)).lang(Lang.NTRIPLES).parse(streamedDTKG);
+        assertTrue(parseTurtle(this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph()).isIsomorphicWith(streamedDTKG));
+    }
+
+    @Test
+    @DisplayName("A reader should keep its version of the DTKG without blocking the writes")
+    void testNonBlockingReaders() throws IOException {
+        final DTKGUpdateBatch batch = this.dtkgEngine.beginUpdateBatch();
+        for (int i = 0; i < JenaDTKGEngine.STREAMING_THRESHOLD; i++) {
+            batch.addRelationship(
+                new DigitalTwinStateRelationshipInstance<>("isInRoom", "http://room" + i + ".it", "isInRoom-" + i)
+            );
+        }
+        batch.apply();
+        final String dtkg = this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph();
+        final long version = this.dtkgEngine.getCurrentVersion();
+        final ByteArrayOutputStream streamedOutput = new ByteArrayOutputStream();
+        this.dtkgEngine.writeCurrentDigitalTwinKnowledgeGraph(DTKGFormat.N_TRIPLES, (streamedVersion, empty) -> {
+            // The DTKG is changed while it is being streamed.
+            this.properties.forEach(this.dtkgEngine::removeProperty);
+            assertEquals(version, streamedVersion);
+            return streamedOutput;
+        });
+        assertTrue(this.dtkgEngine.getCurrentVersion() > version);
+        final Model streamedDTKG = ModelFactory.createDefaultModel();
+        RDFParser.fromString(streamedOutput.toString(StandardCharsets.UTF_8)).lang(Lang.NTRIPLES).parse(streamedDTKG);
+        assertTrue(parseTurtle(dtkg).isIsomorphicWith(streamedDTKG));
+        assertFalse(parseTurtle(this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph()).isIsomorphicWith(streamedDTKG));
+    }
+
+    @Test
+    @DisplayName("The Turtle of a version should write each subject once, as the one of a default graph")
+    void testDTKGTurtleSubjectGrouping() {
+        final DTKGUpdateBatch batch = this.dtkgEngine.beginUpdateBatch();
+        for (int i = 0; i < 100; i++) {
+            batch.addRelationship(
+                new DigitalTwinStateRelationshipInstance<>("isInRoom", "http://room" + i + ".it", "isInRoom-" + i)
+            );
+        }
+        batch.apply();
+        final String dtkg = this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph();
+        final String baselineDTKG = RDFWriter.create()
+            .format(RDFFormat.TURTLE_BLOCKS)
+            .source(parseTurtle(dtkg))
+            .asString();
+        assertEquals(baselineDTKG.lines().count(), dtkg.lines().count());
+    }
+
+    @Test
+    @DisplayName("A dictionary-encoded DTKG should be equivalent to the default one, sharing the terms with the others")
+    void testDictionaryEncodedDTKG() {
+        final TermDictionary dictionary = new TermDictionary();
+        final JenaDTKGEngine dictionaryEncodedEngine =
+            this.createDictionaryEncodedEngine("http://example.com/dt", dictionary);
+        final int dictionarySize = dictionary.size();
+        final JenaDTKGEngine otherEngine = this.createDictionaryEncodedEngine("http://example.com/dt2", dictionary);
+        // Only the URI of the other Digital Twin is new.
+        assertEquals(dictionarySize + 1, dictionary.size());
+        for (int i = 0; i < this.modifiedProperties.size(); i++) {
+            this.dtkgEngine.updateDigitalTwinProperty(this.modifiedProperties.get(i), this.properties.get(i));
+            dictionaryEncodedEngine.updateDigitalTwinProperty(this.modifiedProperties.get(i), this.properties.get(i));
+        }
+        this.dtkgEngine.removeRelationship(this.relationships.get(0));
+        dictionaryEncodedEngine.removeRelationship(this.relationships.get(0));
+        assertTrue(parseTurtle(this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph())
+            .isIsomorphicWith(parseTurtle(dictionaryEncodedEngine.getCurrentDigitalTwinKnowledgeGraph())));
+        assertTrue(otherEngine.getCurrentDigitalTwinKnowledgeGraph().contains("http://exampleRoomDT.it"));
+    }
+
+    @Test
+    @DisplayName("The snapshots of a dictionary-encoded DTKG should survive a sweep")
+    void testDictionaryEncodedDTKGSnapshots() {
+        final TermDictionary dictionary = new TermDictionary();
+        final JenaDTKGEngine dictionaryEncodedEngine =
+            this.createDictionaryEncodedEngine("http://example.com/dt", dictionary);
+        for (int i = 0; i < this.modifiedProperties.size(); i++) {
+            this.dtkgEngine.updateDigitalTwinProperty(this.modifiedProperties.get(i), this.properties.get(i));
+            dictionaryEncodedEngine.updateDigitalTwinProperty(this.modifiedProperties.get(i), this.properties.get(i));
+        }
+        dictionary.sweep();
+        final Model dtkg = parseTurtle(this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph());
+        assertTrue(dtkg.isIsomorphicWith(parseTurtle(dictionaryEncodedEngine.getCurrentDigitalTwinKnowledgeGraph())));
+        final Model nTriplesDTKG = ModelFactory.createDefaultModel();
+        RDFParser.fromString(dictionaryEncodedEngine.getCurrentSnapshot(DTKGFormat.N_TRIPLES)
+                .getDigitalTwinKnowledgeGraph())
+            .lang(Lang.NTRIPLES)
+            .parse(nTriplesDTKG);
+        assertTrue(dtkg.isIsomorphicWith(nTriplesDTKG));
+    }
+
+    private JenaDTKGEngine createDictionaryEncodedEngine(final String digitalTwinUri, final TermDictionary dictionary) {
+        final JenaDTKGEngine engine = JenaDTKGEngine.builder(URI.create(digitalTwinUri), new LampDTSemantics())
+            .withTermDictionary(dictionary)
+            .build();
+        this.properties.forEach(engine::addDigitalTwinProperty);
+        this.relationships.forEach(engine::addRelationship);
+        this.actionsList.forEach(engine::addAction);
+        return engine;
+    }
+
+    private static void assertDTKG(final String expectedDTKGFile, final String dtkg) {
+        assertTrue(parseTurtle(TestingUtils.readResourceFile(expectedDTKGFile).orElse(""))
+            .isIsomorphicWith(parseTurtle(dtkg)));
+    }
+
+    private static Model parseTurtle(final String turtle) {
+        final Model model = ModelFactory.createDefaultModel();
+        RDFParser.fromString(turtle).lang(Lang.TTL).parse(model);
+        return model;
     }
 }
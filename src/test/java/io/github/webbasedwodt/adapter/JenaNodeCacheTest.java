@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.model.ontology.rdf.RdfBlankNode;
+import io.github.webbasedwodt.model.ontology.rdf.RdfIndividual;
+import io.github.webbasedwodt.model.ontology.rdf.RdfProperty;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for {@link JenaNodeCache}.
+ */
+class JenaNodeCacheTest {
+    private static final URI HAS_VALUE = URI.create("https://saref.etsi.org/core/hasValue");
+
+    @Test
+    @DisplayName("Equal resources should be converted to the same node")
+    void testInterning() {
+        final JenaNodeCache cache = new JenaNodeCache(2);
+        assertEquals(new RdfProperty(HAS_VALUE), new RdfProperty(HAS_VALUE));
+        assertNotEquals(new RdfProperty(HAS_VALUE), new RdfIndividual(HAS_VALUE));
+        assertSame(cache.getNode(new RdfProperty(HAS_VALUE)), cache.getNode(new RdfProperty(HAS_VALUE)));
+        assertEquals(cache.getNode(new RdfProperty(HAS_VALUE)), cache.getNode(new RdfIndividual(HAS_VALUE)));
+        assertSame(cache.getNode(new RdfBlankNode("value")), cache.getNode(new RdfBlankNode("value")));
+    }
+
+    @Test
+    @DisplayName("Resources should still be converted once the cache is full")
+    void testCapacity() {
+        final JenaNodeCache cache = new JenaNodeCache(0);
+        final RdfProperty property = new RdfProperty(HAS_VALUE);
+        assertNotSame(cache.getNode(property), cache.getNode(property));
+        assertEquals(cache.getNode(property), cache.getNode(property));
+        assertEquals(HAS_VALUE.toString(), cache.getNode(property).getURI());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link PersistentHashMap}.
+ */
+class PersistentHashMapTest {
+    private static final int OPERATIONS = 10_000;
+    private static final int KEY_RANGE = 2000;
+    private static final long SEED = 42;
+
+    @Test
+    @DisplayName("A map should behave like a mutable hash map under random additions and removals")
+    void testRandomOperations() {
+        final Random random = new Random(SEED);
+        final Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < OPERATIONS; i++) {
+            final int key = random.nextInt(KEY_RANGE);
+            if (random.nextBoolean()) {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            } else {
+                expected.remove(key);
+                map = map.minus(key);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        final Map<Integer, Integer> entries = new HashMap<>();
+        map.forEach(entries::put);
+        assertEquals(expected, entries);
+        final Set<Integer> keys = new HashSet<>();
+        map.keyIterator().forEachRemaining(keys::add);
+        assertEquals(expected.keySet(), keys);
+        for (int key = 0; key < KEY_RANGE; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    @DisplayName("A change should produce a new map, leaving the previous one unchanged")
+    void testPersistence() {
+        final PersistentHashMap<String, String> map = PersistentHashMap.<String, String>empty().plus("a", "1");
+        final PersistentHashMap<String, String> updatedMap = map.plus("a", "2").plus("b", "3");
+        final PersistentHashMap<String, String> reducedMap = updatedMap.minus("a");
+        assertEquals("1", map.get("a"));
+        assertEquals(1, map.size());
+        assertEquals("2", updatedMap.get("a"));
+        assertEquals(2, updatedMap.size());
+        assertFalse(reducedMap.containsKey("a"));
+        assertEquals(1, reducedMap.size());
+        assertSame(map, map.plus("a", "1"));
+        assertSame(map, map.minus("c"));
+    }
+
+    @Test
+    @DisplayName("Keys with the same hash should be kept distinct")
+    void testHashCollisions() {
+        final PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty()
+            .plus("Aa", 1)
+            .plus("BB", 2)
+            .plus("C", 3);
+        assertEquals(3, map.size());
+        assertEquals(1, map.get("Aa"));
+        assertEquals(2, map.get("BB"));
+        final PersistentHashMap<String, Integer> reducedMap = map.minus("Aa");
+        assertNull(reducedMap.get("Aa"));
+        assertEquals(2, reducedMap.get("BB"));
+        assertEquals(1, map.get("Aa"));
+        final Iterator<String> keys = reducedMap.minus("BB").minus("C").keyIterator();
+        assertFalse(keys.hasNext());
+        assertTrue(reducedMap.minus("BB").minus("C").isEmpty());
+    }
+}
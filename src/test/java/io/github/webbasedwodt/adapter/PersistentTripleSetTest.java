@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.webbasedwodt.adapter;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link PersistentTripleSet}.
+ */
+class PersistentTripleSetTest {
+    private static final int OPERATIONS = 5000;
+    private static final int SUBJECTS = 20;
+    private static final int OBJECTS = 50;
+    private static final int PREDICATES = 3;
+    private static final long SEED = 42;
+    private static final Node PREDICATE = NodeFactory.createURI("http://example.com/predicate");
+
+    @Test
+    @DisplayName("A set should behave like a mutable set under random additions and removals")
+    void testRandomOperations() {
+        final Random random = new Random(SEED);
+        final Set<Triple> expected = new HashSet<>();
+        PersistentTripleSet set = PersistentTripleSet.empty();
+        for (int i = 0; i < OPERATIONS; i++) {
+            final Triple triple = triple(random.nextInt(SUBJECTS), random.nextInt(OBJECTS));
+            if (random.nextBoolean()) {
+                expected.add(triple);
+                set = set.plus(triple);
+            } else {
+                expected.remove(triple);
+                set = set.minus(triple);
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        final Set<Triple> triples = new HashSet<>();
+        set.iterator().forEachRemaining(triples::add);
+        assertEquals(expected, triples);
+        expected.forEach(triple -> assertTrue(PersistentTripleSet.empty().plus(triple).contains(triple)));
+    }
+
+    @Test
+    @DisplayName("The triples should be iterated subject by subject")
+    void testSubjectGrouping() {
+        PersistentTripleSet set = PersistentTripleSet.empty();
+        for (int object = 0; object < OBJECTS; object++) {
+            for (int subject = 0; subject < SUBJECTS; subject++) {
+                set = set.plus(triple(subject, object));
+            }
+        }
+        final List<Node> subjects = new ArrayList<>();
+        final Iterator<Triple> triples = set.iterator();
+        while (triples.hasNext()) {
+            final Node subject = triples.next().getSubject();
+            if (subjects.isEmpty() || !subjects.get(subjects.size() - 1).equals(subject)) {
+                assertFalse(subjects.contains(subject));
+                subjects.add(subject);
+            }
+        }
+        assertEquals(SUBJECTS, subjects.size());
+        final Set<Triple> subjectTriples = new HashSet<>();
+        set.find(Triple.create(subject(0), Node.ANY, Node.ANY)).forEachRemaining(subjectTriples::add);
+        assertEquals(OBJECTS, subjectTriples.size());
+    }
+
+    @Test
+    @DisplayName("The triples that match a pattern should be found whatever nodes it binds")
+    void testFind() {
+        final Random random = new Random(SEED);
+        PersistentTripleSet set = PersistentTripleSet.empty();
+        for (int i = 0; i < OPERATIONS; i++) {
+            set = set.plus(triple(random.nextInt(SUBJECTS), random.nextInt(PREDICATES), random.nextInt(OBJECTS)));
+        }
+        final Set<Triple> triples = new HashSet<>();
+        set.iterator().forEachRemaining(triples::add);
+        final Triple sample = triple(0, 0, 0);
+        final List<Node> subjects = List.of(Node.ANY, sample.getSubject(), subject(SUBJECTS));
+        final List<Node> predicates = List.of(Node.ANY, sample.getPredicate());
+        final List<Node> objects = List.of(Node.ANY, sample.getObject());
+        for (final Node subject : subjects) {
+            for (final Node predicate : predicates) {
+                for (final Node object : objects) {
+                    final Triple pattern = Triple.create(subject, predicate, object);
+                    final Set<Triple> expected = new HashSet<>();
+                    triples.stream().filter(pattern::matches).forEach(expected::add);
+                    final Set<Triple> found = new HashSet<>();
+                    set.find(pattern).forEachRemaining(found::add);
+                    assertEquals(expected, found, pattern.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Adding a present triple or removing an absent one should return the same set")
+    void testUnchangedSet() {
+        final PersistentTripleSet set = PersistentTripleSet.empty().plus(triple(0, 0));
+        assertSame(set, set.plus(triple(0, 0)));
+        assertSame(set, set.minus(triple(0, 1)));
+        assertSame(set, set.minus(triple(1, 0)));
+        assertFalse(set.minus(triple(0, 0)).contains(triple(0, 0)));
+        assertTrue(set.contains(triple(0, 0)));
+    }
+
+    private static Triple triple(final int subject, final int object) {
+        return Triple.create(subject(subject), PREDICATE, NodeFactory.createURI("http://example.com/object/" + object));
+    }
+
+    private static Triple triple(final int subject, final int predicate, final int object) {
+        return Triple.create(
+            subject(subject),
+            NodeFactory.createURI("http://example.com/predicate/" + predicate),
+            NodeFactory.createURI("http://example.com/object/" + object)
+        );
+    }
+
+    private static Node subject(final int subject) {
+        return NodeFactory.createURI("http://example.com/subject/" + subject);
+    }
+}
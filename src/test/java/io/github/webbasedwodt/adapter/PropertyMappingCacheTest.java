@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.exception.WldtDigitalTwinStateException;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for {@link PropertyMappingCache}.
+ */
+class PropertyMappingCacheTest {
+    private final PropertyMappingCache cache = new PropertyMappingCache(Set.of("status"), 2);
+    private int mappings;
+
+    @BeforeEach
+    void setUp() {
+        this.mappings = 0;
+    }
+
+    @Test
+    @DisplayName("A value already mapped should not be mapped again")
+    void testCachedMapping() throws WldtDigitalTwinStateException {
+        final List<Triple> triples = this.map("status", "on");
+        assertSame(triples, this.map("status", "on"));
+        assertEquals(1, this.mappings);
+    }
+
+    @Test
+    @DisplayName("The least recently used mapping should be evicted when the cache is full")
+    void testEviction() throws WldtDigitalTwinStateException {
+        this.map("status", "on");
+        this.map("status", "off");
+        this.map("status", "on");
+        this.map("status", "error");
+        assertEquals(2, this.cache.size());
+        this.map("status", "on");
+        assertEquals(3, this.mappings);
+        this.map("status", "off");
+        assertEquals(4, this.mappings);
+    }
+
+    @Test
+    @DisplayName("The mappings of the properties not selected should not be cached")
+    void testNotCachedProperty() throws WldtDigitalTwinStateException {
+        this.map("luminosity", 1);
+        this.map("luminosity", 1);
+        assertEquals(2, this.mappings);
+        assertEquals(0, this.cache.size());
+    }
+
+    private List<Triple> map(final String key, final Object value) throws WldtDigitalTwinStateException {
+        return this.cache.getTriples(new DigitalTwinStateProperty<>(key, value), () -> {
+            this.mappings++;
+            return List.of(Triple.create(
+                NodeFactory.createURI("http://example.com/dt"),
+                NodeFactory.createURI("http://example.com/" + key),
+                NodeFactory.createLiteral(value.toString())
+            ));
+        });
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import io.github.webbasedwodt.application.component.observer.DTKGObserverOverflowPolicy;
+import io.github.webbasedwodt.model.dtkg.DTKGDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link QueuedDTKGObserver}.
+ */
+class QueuedDTKGObserverTest {
+    private static final int CAPACITY = 2;
+    private static final int NOTIFICATIONS = 4;
+    private final List<Runnable> scheduledTasks = new ArrayList<>();
+    private final List<DTKGDelta> receivedDeltas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        this.scheduledTasks.clear();
+        this.receivedDeltas.clear();
+    }
+
+    @Test
+    @DisplayName("Pending deltas should be merged when the queue is full and the policy is to conflate")
+    void testConflate() {
+        final QueuedDTKGObserver observer = this.notifyDeltas(DTKGObserverOverflowPolicy.CONFLATE);
+        this.runScheduledTasks();
+        assertEquals(List.of(3L, 4L), this.receivedVersions());
+        assertEquals(0L, this.receivedDeltas.get(0).getPreviousVersion());
+        assertEquals(3L, this.receivedDeltas.get(1).getPreviousVersion());
+        assertTrue(this.receivedDeltas.get(0).getRdfPatch().contains("delta-1"));
+        assertTrue(this.receivedDeltas.get(0).getRdfPatch().contains("delta-3"));
+        assertFalse(observer.isDisconnected());
+    }
+
+    @Test
+    @DisplayName("The oldest pending delta should be dropped when the queue is full and the policy is to drop it")
+    void testDropOldest() {
+        final QueuedDTKGObserver observer = this.notifyDeltas(DTKGObserverOverflowPolicy.DROP_OLDEST);
+        this.runScheduledTasks();
+        assertEquals(List.of(3L, 4L), this.receivedVersions());
+        assertEquals(2L, this.receivedDeltas.get(0).getPreviousVersion());
+        assertFalse(observer.isDisconnected());
+    }
+
+    @Test
+    @DisplayName("The observer should be disconnected when the queue is full and the policy is to disconnect")
+    void testDisconnect() {
+        final QueuedDTKGObserver observer = this.notifyDeltas(DTKGObserverOverflowPolicy.DISCONNECT);
+        this.runScheduledTasks();
+        assertTrue(this.receivedDeltas.isEmpty());
+        assertTrue(observer.isDisconnected());
+    }
+
+    @Test
+    @DisplayName("A single delivery task should be scheduled while there are pending deltas")
+    void testSingleDeliveryTask() {
+        this.notifyDeltas(DTKGObserverOverflowPolicy.CONFLATE);
+        assertEquals(1, this.scheduledTasks.size());
+        this.runScheduledTasks();
+        final QueuedDTKGObserver observer = this.notifyDeltas(DTKGObserverOverflowPolicy.CONFLATE);
+        observer.notifyDTKGDelta(new DTKGDelta(NOTIFICATIONS + 1, NOTIFICATIONS, "delta-5"));
+        assertEquals(1, this.scheduledTasks.size());
+    }
+
+    private QueuedDTKGObserver notifyDeltas(final DTKGObserverOverflowPolicy overflowPolicy) {
+        final QueuedDTKGObserver observer = new QueuedDTKGObserver(
+            this.receivedDeltas::add,
+            this.scheduledTasks::add,
+            CAPACITY,
+            overflowPolicy
+        );
+        for (int version = 1; version <= NOTIFICATIONS; version++) {
+            observer.notifyDTKGDelta(new DTKGDelta(version, version - 1, "delta-" + version + "\n"));
+        }
+        return observer;
+    }
+
+    private void runScheduledTasks() {
+        final List<Runnable> tasks = new ArrayList<>(this.scheduledTasks);
+        this.scheduledTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private List<Long> receivedVersions() {
+        return this.receivedDeltas.stream().map(DTKGDelta::getVersion).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2023. Andrea Giulianelli
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.webbasedwodt.adapter;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * Tests for {@link TermDictionary}.
+ */
+class TermDictionaryTest {
+    private static final int TERMS = 1000;
+
+    @Test
+    @DisplayName("Equal terms should be encoded as the same identifier")
+    void testEncode() {
+        final TermDictionary dictionary = new TermDictionary();
+        final Node term = NodeFactory.createLiteral("value");
+        final Node equalTerm = NodeFactory.createLiteral("value");
+        assertNotSame(term, equalTerm);
+        assertEquals(TermDictionary.NO_TERM, dictionary.lookup(term));
+        final int[] identifiers = new int[2];
+        dictionary.write(() -> {
+            identifiers[0] = dictionary.encode(term);
+            identifiers[1] = dictionary.encode(equalTerm);
+        });
+        assertEquals(identifiers[0], identifiers[1]);
+        assertEquals(identifiers[0], dictionary.lookup(equalTerm));
+        assertEquals(term, dictionary.decode(identifiers[0]));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    @DisplayName("A sweep should remove the terms of no owner and reuse their identifiers")
+    void testSweep() {
+        final TermDictionary dictionary = new TermDictionary();
+        final Node term = NodeFactory.createURI("http://example.com/term");
+        final Node otherTerm = NodeFactory.createURI("http://example.com/other-term");
+        final int[] identifiers = new int[2];
+        dictionary.write(() -> identifiers[0] = dictionary.encode(term));
+        dictionary.sweep();
+        assertEquals(0, dictionary.size());
+        assertEquals(TermDictionary.NO_TERM, dictionary.lookup(term));
+        dictionary.write(() -> identifiers[1] = dictionary.encode(otherTerm));
+        assertEquals(identifiers[0], identifiers[1]);
+        assertEquals(otherTerm, dictionary.decode(identifiers[1]));
+    }
+
+    @Test
+    @DisplayName("A sweep should keep the terms of a reachable owner")
+    void testTrackedOwner() {
+        final TermDictionary dictionary = new TermDictionary();
+        final int[] owner = new int[TERMS];
+        dictionary.write(() -> {
+            for (int i = 0; i < TERMS; i++) {
+                owner[i] = dictionary.encode(NodeFactory.createURI("http://example.com/" + i));
+            }
+            dictionary.encode(NodeFactory.createURI("http://example.com/unused"));
+            dictionary.track(owner, (terms, action) -> IntStream.of(terms).forEach(action));
+        });
+        dictionary.sweep();
+        assertEquals(TERMS, dictionary.size());
+        for (int i = 0; i < TERMS; i++) {
+            assertEquals(NodeFactory.createURI("http://example.com/" + i), dictionary.decode(owner[i]));
+        }
+    }
+
+    @Test
+    @DisplayName("Terms encoded concurrently should be encoded once")
+    void testConcurrentEncode() {
+        final TermDictionary dictionary = new TermDictionary();
+        final List<Integer> identifiers = ForkJoinPool.commonPool().submit(() -> IntStream.range(0, TERMS * 2)
+            .parallel()
+            .mapToObj(i -> {
+                final int[] identifier = new int[1];
+                dictionary.write(() -> {
+                    identifier[0] = dictionary.encode(NodeFactory.createURI("http://example.com/" + i % TERMS));
+                });
+                return identifier[0];
+            })
+            .collect(Collectors.toList())
+        ).join();
+        final Set<Integer> uniqueIdentifiers = new HashSet<>();
+        for (int i = 0; i < TERMS; i++) {
+            assertEquals(identifiers.get(i), identifiers.get(i + TERMS));
+            uniqueIdentifiers.add(identifiers.get(i));
+        }
+        assertEquals(TERMS, uniqueIdentifiers.size());
+    }
+}
@@ -21,8 +21,10 @@ import io.github.webbasedwodt.application.component.DTDManager;
 import io.github.webbasedwodt.application.component.DTKGEngine;
 import io.github.webbasedwodt.integration.wldt.LampDTSemantics;
 import io.github.webbasedwodt.model.dtd.DTVersion;
+import io.github.webbasedwodt.model.dtkg.DTKGFormat;
 import io.github.webbasedwodt.model.ontology.DigitalTwinSemantics;
 import io.github.webbasedwodt.model.ontology.WoDTVocabulary;
+import io.github.webbasedwodt.utils.ContentCoding;
 import io.javalin.Javalin;
 import io.javalin.http.Header;
 import io.javalin.http.HttpStatus;
@@ -34,9 +36,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -52,7 +60,7 @@ class WoDTDigitalTwinInterfaceControllerTest {
 
     @BeforeEach
     public void init() {
-        this.app = Javalin.create();
+        this.app = Javalin.create(config -> config.http.disableCompression());
         this.dtkgEngine = new JenaDTKGEngine(TEST_DIGITAL_TWIN_URI, dtSemantics);
         this.dtdManager = new WoTDTDManager(
                 TEST_DIGITAL_TWIN_URI,
@@ -88,6 +96,74 @@ class WoDTDigitalTwinInterfaceControllerTest {
         });
     }
 
+    @Test
+    @DisplayName("A HTTP GET request on the DTKG should return it in the format negotiated through the Accept header")
+    void testGetDtkgContentNegotiation() throws WldtDigitalTwinStateException {
+        this.dtkgEngine.addDigitalTwinProperty(new DigitalTwinStateProperty<>("luminosity", 100));
+        JavalinTest.test(this.app, (server, client) -> {
+            final var response = client.get("/dtkg", request ->
+                    request.header(Header.ACCEPT, "text/turtle;q=0.5, application/n-triples"));
+            assertEquals(HttpStatus.OK.getCode(), response.code());
+            assertEquals(DTKGFormat.N_TRIPLES.getMediaType(), response.header(Header.CONTENT_TYPE));
+            assertEquals(
+                    this.dtkgEngine.getCurrentSnapshot(DTKGFormat.N_TRIPLES).getDigitalTwinKnowledgeGraph(),
+                    response.body().string()
+            );
+            final var rangeResponse = client.get("/dtkg", request ->
+                    request.header(Header.ACCEPT, "*/*, application/rdf+thrift"));
+            assertEquals(DTKGFormat.RDF_THRIFT.getMediaType(), rangeResponse.header(Header.CONTENT_TYPE));
+            assertNotEquals(
+                    response.header(Header.ETAG),
+                    client.get("/dtkg", request -> request.header(Header.ACCEPT, "*/*")).header(Header.ETAG)
+            );
+            final var notAcceptableResponse = client.get("/dtkg", request ->
+                    request.header(Header.ACCEPT, "application/rdf+xml"));
+            assertEquals(HttpStatus.NOT_ACCEPTABLE.getCode(), notAcceptableResponse.code());
+        });
+    }
+
+    @Test
+    @DisplayName("A HTTP GET request on the DTKG and on the DTD should return them compressed, if accepted")
+    void testCompressedRepresentations() throws WldtDigitalTwinStateException {
+        this.dtkgEngine.addDigitalTwinProperty(new DigitalTwinStateProperty<>("luminosity", 100));
+        JavalinTest.test(this.app, (server, client) -> {
+            final var dtkgResponse = client.get("/dtkg", request ->
+                    request.header(Header.ACCEPT_ENCODING, "gzip;q=0.5, deflate"));
+            assertEquals(ContentCoding.DEFLATE.getName(), dtkgResponse.header(Header.CONTENT_ENCODING));
+            try (InputStream dtkg = new InflaterInputStream(dtkgResponse.body().byteStream())) {
+                assertEquals(
+                        this.dtkgEngine.getCurrentDigitalTwinKnowledgeGraph(),
+                        new String(dtkg.readAllBytes(), StandardCharsets.UTF_8)
+                );
+            }
+            final var dtdResponse = client.get("/dtd", request -> request.header(Header.ACCEPT_ENCODING, "gzip"));
+            assertEquals(ContentCoding.GZIP.getName(), dtdResponse.header(Header.CONTENT_ENCODING));
+            try (InputStream dtd = new GZIPInputStream(dtdResponse.body().byteStream())) {
+                assertEquals(
+                        this.dtdManager.getDTD().toJsonString(),
+                        new String(dtd.readAllBytes(), StandardCharsets.UTF_8)
+                );
+            }
+            final var identityResponse = client.get("/dtd", request ->
+                    request.header(Header.ACCEPT_ENCODING, "identity"));
+            assertNull(identityResponse.header(Header.CONTENT_ENCODING));
+            assertNotEquals(dtdResponse.header(Header.ETAG), identityResponse.header(Header.ETAG));
+        });
+    }
+
+    @Test
+    @DisplayName("A coding excluded with q=0 should never be chosen, not even through the wildcard")
+    void testExcludedCoding() {
+        JavalinTest.test(this.app, (server, client) -> {
+            final var wildcardResponse = client.get("/dtd", request ->
+                    request.header(Header.ACCEPT_ENCODING, "gzip;q=0, *"));
+            assertEquals(ContentCoding.DEFLATE.getName(), wildcardResponse.header(Header.CONTENT_ENCODING));
+            final var excludedResponse = client.get("/dtkg", request ->
+                    request.header(Header.ACCEPT_ENCODING, "gzip;q=0"));
+            assertNull(excludedResponse.header(Header.CONTENT_ENCODING));
+        });
+    }
+
     @Test
     @DisplayName("A HTTP GET request on the Digital Twin Descriptor should respect the specification")
     void testGetDTD() {
@@ -98,6 +174,43 @@ class WoDTDigitalTwinInterfaceControllerTest {
         });
     }
 
+    @Test
+    @DisplayName("A conditional HTTP GET request on an unchanged DTKG should return the HTTP status Not Modified")
+    void testConditionalGetDtkg() throws WldtDigitalTwinStateException {
+        final DigitalTwinStateProperty<?> property = new DigitalTwinStateProperty<>("luminosity", 100);
+        final DigitalTwinStateProperty<?> updatedProperty = new DigitalTwinStateProperty<>("luminosity", 50);
+        this.dtkgEngine.addDigitalTwinProperty(property);
+        JavalinTest.test(this.app, (server, client) -> {
+            final String entityTag = client.get("/dtkg").header(Header.ETAG);
+            final var notModifiedResponse = client.get("/dtkg", request ->
+                    request.header(Header.IF_NONE_MATCH, entityTag));
+            assertEquals(HttpStatus.NOT_MODIFIED.getCode(), notModifiedResponse.code());
+            assertEquals(entityTag, notModifiedResponse.header(Header.ETAG));
+            this.dtkgEngine.updateDigitalTwinProperty(updatedProperty, property);
+            final var modifiedResponse = client.get("/dtkg", request ->
+                    request.header(Header.IF_NONE_MATCH, entityTag));
+            assertEquals(HttpStatus.OK.getCode(), modifiedResponse.code());
+            assertNotEquals(entityTag, modifiedResponse.header(Header.ETAG));
+        });
+    }
+
+    @Test
+    @DisplayName("A conditional HTTP GET request on an unchanged DTD should return the HTTP status Not Modified")
+    void testConditionalGetDTD() throws WldtDigitalTwinStateException {
+        final DigitalTwinStateAction action = new DigitalTwinStateAction("switch", "", "");
+        JavalinTest.test(this.app, (server, client) -> {
+            final String entityTag = client.get("/dtd").header(Header.ETAG);
+            final var notModifiedResponse = client.get("/dtd", request ->
+                    request.header(Header.IF_NONE_MATCH, entityTag));
+            assertEquals(HttpStatus.NOT_MODIFIED.getCode(), notModifiedResponse.code());
+            this.dtdManager.addAction(action);
+            final var modifiedResponse = client.get("/dtd", request ->
+                    request.header(Header.IF_NONE_MATCH, entityTag));
+            assertEquals(HttpStatus.OK.getCode(), modifiedResponse.code());
+            assertEquals(this.dtdManager.getDTD().toJsonString(), modifiedResponse.body().string());
+        });
+    }
+
     @Test
     @DisplayName("It should be possible to invoke an existent action")
     void testInvokeExistingAction() throws WldtDigitalTwinStateException {
@@ -38,7 +38,10 @@ import org.junit.jupiter.api.Test;
 import java.net.URI;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -169,6 +172,18 @@ class WoTDTDManagerTest {
                 link.getRel().get().equals(WoDTVocabulary.REGISTERED_TO_PLATFORM.getUri())));
     }
 
+    @Test
+    @DisplayName("The DTD should be built only once until it changes")
+    void testDTDCaching() {
+        final ThingDescription thingDescription = this.dtdManager.getDTD();
+        assertSame(thingDescription, this.dtdManager.getDTD());
+        assertEquals(thingDescription.toJsonString(), this.dtdManager.getCurrentSnapshot().getDigitalTwinDescription());
+        this.dtdManager.addProperty(this.dtProperty);
+        final ThingDescription updatedThingDescription = this.dtdManager.getDTD();
+        assertNotSame(thingDescription, updatedThingDescription);
+        assertTrue(updatedThingDescription.getProperties().get().containsKey(this.dtProperty.getKey()));
+    }
+
     void generalTestOnThingDescriptionProperty(
             final ThingDescription thingDescription,
             final DigitalTwinStateProperty<?> property
@@ -30,4 +30,9 @@ public final class PlatformManagementInterfaceReaderTestDouble implements Platfo
     public Set<URI> getRegisteredPlatformUrls() {
         return Set.of(URI.create("http://platform.it"));
     }
+
+    @Override
+    public long getRegistrationsVersion() {
+        return 0;
+    }
 }
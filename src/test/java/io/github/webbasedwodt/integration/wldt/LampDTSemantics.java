@@ -56,6 +56,11 @@ public final class LampDTSemantics implements DigitalTwinSemantics {
     "switch", new RdfUriResource(URI.create("https://purl.org/onto/SwitchCommand"))
     );
 
+    private static final Map<String, String> PREFIXES = Map.of(
+    "saref", "https://saref.etsi.org/core/",
+    "brick", "https://brickschema.org/schema/Brick#"
+    );
+
     @Override
     public List<RdfClass> getDigitalTwinTypes() {
         return DT_CLASSES;
@@ -139,6 +144,11 @@ public final class LampDTSemantics implements DigitalTwinSemantics {
         return Optional.empty();
     }
 
+    @Override
+    public Map<String, String> getPrefixes() {
+        return PREFIXES;
+    }
+
     private <T> Optional<T> getOptionalFromMap(final Map<String, T> map, final String key) {
         if (map.containsKey(key)) {
             return Optional.of(map.get(key));